@@ -0,0 +1,82 @@
+package org.example.restapp.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.restapp.dto.ExceptionResponse;
+import org.example.restapp.exception.InvalidRequestException;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.handler.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionResponseBenchmark {
+
+    private GlobalExceptionHandler exceptionHandler;
+    private IllegalStateException failure;
+
+    @Setup
+    public void setUp() {
+        exceptionHandler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        failure = new IllegalStateException("Something went wrong");
+    }
+
+    @Benchmark
+    public ResponseEntity<ExceptionResponse> handleInternalServerError() {
+        return exceptionHandler.handleInternalServerError(failure);
+    }
+
+    // Includes the cost of constructing the exception, which is what every 404 pays
+    @Benchmark
+    public ResponseEntity<ExceptionResponse> handleUserNotFound() {
+        return exceptionHandler.handleUserNotFound(new UserNotFoundException(42L));
+    }
+
+    @Benchmark
+    public ResponseEntity<ExceptionResponse> handleValidationException() {
+        return exceptionHandler.handleValidationException(new InvalidRequestException("Invalid date range"));
+    }
+
+    // Throwing from the bottom of a stack as deep as a servlet request's (around 150 frames through the
+    // filters, MVC and the service proxies) and catching at the top, as the exception resolver does.
+    // The baseline captures a stack trace the way UserNotFoundException used to
+    @Benchmark
+    public RuntimeException throwCapturingStackTrace(Stack stack) {
+        return stack.throwAndCatch(() -> new RuntimeException("User with id 42 not found"));
+    }
+
+    @Benchmark
+    public RuntimeException throwUserNotFound(Stack stack) {
+        return stack.throwAndCatch(() -> new UserNotFoundException(42L));
+    }
+
+    @State(Scope.Thread)
+    public static class Stack {
+
+        @Param({"10", "150"})
+        private int depth;
+
+        RuntimeException throwAndCatch(Supplier<RuntimeException> exception) {
+            try {
+                descend(depth, exception);
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        }
+
+        private static void descend(int remaining, Supplier<RuntimeException> exception) {
+            if (remaining == 0) {
+                throw exception.get();
+            }
+            descend(remaining - 1, exception);
+        }
+    }
+}
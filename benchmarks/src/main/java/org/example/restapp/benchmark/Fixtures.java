@@ -0,0 +1,43 @@
+package org.example.restapp.benchmark;
+
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.model.User;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .birthDate(LocalDate.of(1950, 1, 1).plusDays(id % 15_000))
+                .address(id + " Benchmark Street, Springfield")
+                .phone("+1-555-" + (1_000_000 + id))
+                .version(id % 7)
+                .updatedAt(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(id))
+                .build();
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            users.add(user(id));
+        }
+        return users;
+    }
+
+    static UserRequest request(long id) {
+        User user = user(id);
+        return new UserRequest(user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getBirthDate(), user.getAddress(), user.getPhone());
+    }
+}
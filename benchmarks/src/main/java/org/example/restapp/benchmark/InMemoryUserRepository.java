@@ -0,0 +1,265 @@
+package org.example.restapp.benchmark;
+
+import org.example.restapp.model.User;
+import org.example.restapp.repository.UserRepository;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Map-backed UserRepository covering the calls UserServiceImpl makes on its hot paths; everything else
+// throws, so a benchmark that starts depending on another query fails instead of measuring a stub.
+// Generated ids wrap around at the capacity so a create benchmark overwrites old rows instead of growing the heap.
+final class InMemoryUserRepository implements UserRepository {
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int capacity;
+
+    InMemoryUserRepository(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        if (user.getId() == null) {
+            user.setId(sequence.getAndIncrement() % capacity + 1);
+            user.setVersion(0L);
+        }
+        users.put(user.getId(), user);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public int removeById(Long id) {
+        return users.remove(id) == null ? 0 : 1;
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return page(pageable, null, null);
+    }
+
+    @Override
+    public Page<User> findAllByBirthDateBetween(Pageable pageable, LocalDate from, LocalDate to) {
+        return page(pageable, from, to);
+    }
+
+    private Page<User> page(Pageable pageable, LocalDate from, LocalDate to) {
+        List<User> content = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (long id = 1; id <= capacity && content.size() < pageable.getPageSize(); id++) {
+            User user = users.get(id);
+            if (user == null || (from != null && (user.getBirthDate().isBefore(from) || user.getBirthDate().isAfter(to)))) {
+                continue;
+            }
+            if (skip-- > 0) {
+                continue;
+            }
+            content.add(user);
+        }
+        return new PageImpl<>(content, pageable, users.size());
+    }
+
+    @Override
+    public Slice<User> findAllByIdGreaterThan(Long afterId, Pageable pageable) {
+        throw new UnsupportedOperationException("findAllByIdGreaterThan");
+    }
+
+    @Override
+    public Slice<User> findAllByBirthDateBetweenAfter(LocalDate from, LocalDate to, LocalDate afterBirthDate,
+                                                      Long afterId, Pageable pageable) {
+        throw new UnsupportedOperationException("findAllByBirthDateBetweenAfter");
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        throw new UnsupportedOperationException("streamAll");
+    }
+
+    @Override
+    public Stream<User> streamAllByBirthDateBetween(LocalDate from, LocalDate to) {
+        throw new UnsupportedOperationException("streamAllByBirthDateBetween");
+    }
+
+    @Override
+    public List<User> searchByPrefix(String query, String prefix, int limit) {
+        throw new UnsupportedOperationException("searchByPrefix");
+    }
+
+    @Override
+    public List<User> findAllByIdArray(Long[] ids) {
+        throw new UnsupportedOperationException("findAllByIdArray");
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        throw new UnsupportedOperationException("findExistingEmails");
+    }
+
+    @Override
+    public int removeByIdAndVersion(Long id, Long version) {
+        throw new UnsupportedOperationException("removeByIdAndVersion");
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, LocalDate from, LocalDate to, Pageable pageable) {
+        throw new UnsupportedOperationException("findFields");
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> entities) {
+        throw new UnsupportedOperationException("saveAll");
+    }
+
+    @Override
+    public List<User> findAll() {
+        throw new UnsupportedOperationException("findAll");
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        throw new UnsupportedOperationException("findAllById");
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        throw new UnsupportedOperationException("deleteById");
+    }
+
+    @Override
+    public void delete(User entity) {
+        throw new UnsupportedOperationException("delete");
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        throw new UnsupportedOperationException("deleteAllById");
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        throw new UnsupportedOperationException("deleteAll");
+    }
+
+    @Override
+    public void deleteAll() {
+        throw new UnsupportedOperationException("deleteAll");
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        throw new UnsupportedOperationException("findAll");
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S entity) {
+        throw new UnsupportedOperationException("saveAndFlush");
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> entities) {
+        throw new UnsupportedOperationException("saveAllAndFlush");
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<User> entities) {
+        throw new UnsupportedOperationException("deleteAllInBatch");
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        throw new UnsupportedOperationException("deleteAllByIdInBatch");
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        throw new UnsupportedOperationException("deleteAllInBatch");
+    }
+
+    @Override
+    @Deprecated
+    public User getOne(Long id) {
+        throw new UnsupportedOperationException("getOne");
+    }
+
+    @Override
+    @Deprecated
+    public User getById(Long id) {
+        throw new UnsupportedOperationException("getById");
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        throw new UnsupportedOperationException("getReferenceById");
+    }
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        throw new UnsupportedOperationException("findOne");
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        throw new UnsupportedOperationException("findAll");
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        throw new UnsupportedOperationException("findAll");
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw new UnsupportedOperationException("findAll");
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        throw new UnsupportedOperationException("count");
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        throw new UnsupportedOperationException("exists");
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw new UnsupportedOperationException("findBy");
+    }
+}
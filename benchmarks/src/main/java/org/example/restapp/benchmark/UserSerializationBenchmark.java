@@ -0,0 +1,56 @@
+package org.example.restapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.restapp.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    private ObjectWriter writer;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // Same module set and features Spring Boot applies to the MVC ObjectMapper
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        user = Fixtures.user(42);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializePage(Page page) throws JsonProcessingException {
+        return writer.writeValueAsBytes(page.users);
+    }
+
+    // The page size lives in its own state so serializeUser is not repeated once per size
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({"10", "100", "1000"})
+        private int pageSize;
+
+        private List<User> users;
+
+        @Setup
+        public void setUp() {
+            users = Fixtures.users(pageSize);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.restapp.benchmark;
+
+import jakarta.validation.Validation;
+import org.example.restapp.config.CacheConfig;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.model.User;
+import org.example.restapp.repository.UserRepository;
+import org.example.restapp.search.InMemoryUserSearchIndex;
+import org.example.restapp.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Exercises UserServiceImpl without the Spring proxies (no transactions, no @Cacheable), so the numbers
+// isolate the service's own work: validation, entity mapping and repository call overhead. The service is
+// still built by a bare context so its @Value limits come from the application's own configuration
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private GenericApplicationContext context;
+    private UserServiceImpl userService;
+    private UserRequest createRequest;
+    private UserRequest updateRequest;
+    private UserRequest partialUpdateRequest;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        UserRepository userRepository = new InMemoryUserRepository(USERS);
+        SimpleCacheManager cacheManager = (SimpleCacheManager) new CacheConfig()
+                .cacheManager(USERS, Duration.ofMinutes(10), Duration.ofSeconds(5));
+        cacheManager.afterPropertiesSet();
+
+        context = new GenericApplicationContext();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yaml"))) {
+            context.getEnvironment().getPropertySources().addLast(source);
+        }
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        context.registerBean(UserServiceImpl.class, () -> new UserServiceImpl(
+                userRepository,
+                Jackson2ObjectMapperBuilder.json().build(),
+                null,
+                null,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                cacheManager,
+                event -> {
+                },
+                new InMemoryUserSearchIndex()));
+        context.refresh();
+        userService = context.getBean(UserServiceImpl.class);
+
+        for (int i = 0; i < USERS; i++) {
+            userRepository.save(User.builder()
+                    .email("seed" + i + "@example.com")
+                    .firstName("Seed")
+                    .lastName("User")
+                    .birthDate(Fixtures.user(i).getBirthDate())
+                    .build());
+        }
+
+        createRequest = Fixtures.request(1);
+        updateRequest = Fixtures.request(2);
+        partialUpdateRequest = new UserRequest();
+        partialUpdateRequest.setPhone("+1-555-0000000");
+        pageRequest = PageRequest.of(3, 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, USERS + 1);
+    }
+
+    @Benchmark
+    public User createUser() {
+        return userService.createUser(createRequest);
+    }
+
+    @Benchmark
+    public User findById() {
+        return userService.findById(randomId());
+    }
+
+    @Benchmark
+    public User updateUser() {
+        return userService.updateUser(randomId(), updateRequest, null);
+    }
+
+    @Benchmark
+    public User partialUpdateUser() {
+        return userService.partialUpdateUser(randomId(), partialUpdateRequest, null);
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return userService.findAll(pageRequest, null, null);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.restapp.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveRestAppApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveRestAppApplication.class, args);
+    }
+
+}
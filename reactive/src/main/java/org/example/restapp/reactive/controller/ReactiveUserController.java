@@ -0,0 +1,87 @@
+package org.example.restapp.reactive.controller;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.controller.UserPreconditions;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.reactive.model.User;
+import org.example.restapp.reactive.service.ReactiveUserService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    public Mono<ResponseEntity<User>> createUser(@RequestBody UserRequest request, ServerHttpRequest httpRequest) {
+        return userService.createUser(request)
+                .map(user -> {
+                    URI location = UriComponentsBuilder.fromUri(httpRequest.getURI())
+                            .path("/{id}")
+                            .buildAndExpand(user.getId())
+                            .toUri();
+                    return withValidators(ResponseEntity.created(location), user).body(user);
+                });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> getUser(@PathVariable Long id) {
+        return userService.findById(id)
+                .map(user -> withValidators(ResponseEntity.ok(), user).body(user));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<User>> updateUser(@PathVariable Long id, @RequestBody UserRequest user,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.updateUser(id, user, UserPreconditions.expectedVersion(id, ifMatch))
+                .map(updatedUser -> withValidators(ResponseEntity.ok(), updatedUser).body(updatedUser));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<User>> partialUpdateUser(@PathVariable Long id, @RequestBody UserRequest user,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.partialUpdateUser(id, user, UserPreconditions.expectedVersion(id, ifMatch))
+                .map(updatedUser -> withValidators(ResponseEntity.ok(), updatedUser).body(updatedUser));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.deleteUserById(id, UserPreconditions.expectedVersion(id, ifMatch))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    // Flux results are written as they arrive; for application/x-ndjson each row is flushed on its own
+    // and R2DBC only fetches more rows as the client drains the connection
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getAllUsers(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "from", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(value = "to", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to) {
+
+        PageRequest pageRequest = PageRequest.of(page, size);
+
+        return userService.findAll(pageRequest, from, to);
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, User user) {
+        return UserPreconditions.withValidators(response, user.getVersion(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.restapp.reactive.exception.handler;
+
+import jakarta.validation.ValidationException;
+import org.example.restapp.dto.ExceptionResponse;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ExceptionResponse> handleUserNotFound(UserNotFoundException ex) {
+        return response(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ExceptionResponse> handleValidationException(ValidationException ex) {
+        return response(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ExceptionResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        return response(HttpStatus.BAD_REQUEST, ex.getMostSpecificCause().getMessage());
+    }
+
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<ExceptionResponse> handleUserVersionMismatchException(UserVersionMismatchException ex) {
+        return response(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ExceptionResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return response(HttpStatus.CONFLICT, "User has been modified concurrently");
+    }
+
+    private static ResponseEntity<ExceptionResponse> response(HttpStatus status, String message) {
+        return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(), status.value(), message), status);
+    }
+}
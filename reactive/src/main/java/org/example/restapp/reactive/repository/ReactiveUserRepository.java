@@ -0,0 +1,32 @@
+package org.example.restapp.reactive.repository;
+
+import org.example.restapp.reactive.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<User, Long> {
+    Flux<User> findAllBy(Pageable pageable);
+
+    Flux<User> findAllByBirthDateBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    // The JPA side allocates users_seq with a pooled-lo optimizer, so a sequence value reserves the
+    // block [value, value + allocationSize); using the low end keeps the two stacks from colliding
+    @Query("select nextval('users_seq')")
+    Mono<Long> nextId();
+
+    @Modifying
+    @Query("delete from users where id = :id")
+    Mono<Integer> removeById(Long id);
+
+    @Modifying
+    @Query("delete from users where id = :id and version = :version")
+    Mono<Integer> removeByIdAndVersion(Long id, Long version);
+}
@@ -0,0 +1,19 @@
+package org.example.restapp.reactive.service;
+
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.reactive.model.User;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveUserService {
+    Mono<User> createUser(UserRequest request);
+    Mono<User> findById(Long id);
+    Mono<User> updateUser(Long id, UserRequest request, Long expectedVersion);
+    Mono<User> partialUpdateUser(Long id, UserRequest request, Long expectedVersion);
+    Mono<Void> deleteUserById(Long id, Long expectedVersion);
+    Flux<User> findAll(Pageable pageable, LocalDate from, LocalDate to);
+
+}
@@ -0,0 +1,141 @@
+package org.example.restapp.reactive.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.example.restapp.reactive.model.User;
+import org.example.restapp.reactive.repository.ReactiveUserRepository;
+import org.example.restapp.reactive.service.ReactiveUserService;
+import org.example.restapp.validation.UserValidationRules;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Writes here go straight to the shared table without publishing change events, so a servlet instance on the
+// same database keeps serving its cached users, list pages and search results until those entries expire.
+// They also write no user_outbox rows: /users/changes consumers never see changes made through this module
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    @Value("${user.min-age}")
+    private Integer MIN_AGE;
+
+    @Override
+    @Transactional
+    public Mono<User> createUser(UserRequest request) {
+        return Mono.fromRunnable(() -> UserValidationRules.requireMinAge(request.getBirthDate(), MIN_AGE))
+                .then(userRepository.nextId())
+                .flatMap(id -> userRepository.save(User.builder()
+                        .id(id)
+                        .email(request.getEmail())
+                        .firstName(request.getFirstName())
+                        .lastName(request.getLastName())
+                        .birthDate(request.getBirthDate())
+                        .address(request.getAddress())
+                        .phone(request.getPhone())
+                        .updatedAt(Instant.now())
+                        .build()));
+    }
+
+    @Override
+    public Mono<User> findById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User with id " + id + " not found")));
+    }
+
+    @Override
+    @Transactional
+    public Mono<User> updateUser(Long id, UserRequest request, Long expectedVersion) {
+        return findForUpdate(id, expectedVersion)
+                .flatMap(userToUpdate -> {
+                    userToUpdate.setEmail(request.getEmail());
+                    userToUpdate.setFirstName(request.getFirstName());
+                    userToUpdate.setLastName(request.getLastName());
+                    userToUpdate.setBirthDate(request.getBirthDate());
+                    userToUpdate.setAddress(request.getAddress());
+                    userToUpdate.setPhone(request.getPhone());
+                    userToUpdate.setUpdatedAt(Instant.now());
+
+                    return userRepository.save(userToUpdate);
+                });
+    }
+
+    @Override
+    @Transactional
+    public Mono<User> partialUpdateUser(Long id, UserRequest request, Long expectedVersion) {
+        return findForUpdate(id, expectedVersion)
+                .flatMap(userToUpdate -> {
+                    if (request.getEmail() != null) userToUpdate.setEmail(request.getEmail());
+                    if (request.getFirstName() != null) userToUpdate.setFirstName(request.getFirstName());
+                    if (request.getLastName() != null) userToUpdate.setLastName(request.getLastName());
+                    if (request.getBirthDate() != null) userToUpdate.setBirthDate(request.getBirthDate());
+                    if (request.getAddress() != null) userToUpdate.setAddress(request.getAddress());
+                    if (request.getPhone() != null) userToUpdate.setPhone(request.getPhone());
+                    userToUpdate.setUpdatedAt(Instant.now());
+
+                    return userRepository.save(userToUpdate);
+                });
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> deleteUserById(Long id, Long expectedVersion) {
+        Mono<Integer> deleted = Objects.isNull(expectedVersion)
+                ? userRepository.removeById(id)
+                : userRepository.removeByIdAndVersion(id, expectedVersion);
+
+        return deleted.flatMap(count -> {
+            if (count > 0) {
+                return Mono.empty();
+            }
+            if (Objects.isNull(expectedVersion)) {
+                return Mono.error(new UserNotFoundException("User with id " + id + " not found"));
+            }
+            return userRepository.existsById(id)
+                    .flatMap(exists -> Mono.error(exists
+                            ? new UserVersionMismatchException(id)
+                            : new UserNotFoundException("User with id " + id + " not found")));
+        });
+    }
+
+    @Override
+    public Flux<User> findAll(Pageable pageable, LocalDate from, LocalDate to) {
+        if(Objects.isNull(from) || Objects.isNull(to)) {
+            return userRepository.findAllBy(withDefaultSort(pageable, Sort.by("id")));
+        }
+
+        return Mono.fromRunnable(() -> UserValidationRules.requireValidDateRange(from, to))
+                .thenMany(userRepository.findAllByBirthDateBetween(from, to,
+                        withDefaultSort(pageable, Sort.by("birthDate", "id"))));
+    }
+
+    private Mono<User> findForUpdate(Long id, Long expectedVersion) {
+        return findById(id)
+                .flatMap(user -> Objects.nonNull(expectedVersion) && !expectedVersion.equals(user.getVersion())
+                        ? Mono.error(new UserVersionMismatchException(id))
+                        : Mono.just(user));
+    }
+
+    // Without an ORDER BY, LIMIT/OFFSET pages come back in whatever order the plan produces and can skip
+    // or repeat rows between requests
+    private static Pageable withDefaultSort(Pageable pageable, Sort sort) {
+        if (pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.restapp.reactive.controller;
+
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.reactive.model.User;
+import org.example.restapp.reactive.service.ReactiveUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveUserController.class)
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService userServiceMock;
+
+    @Test
+    public void createUser_whenSuccessfulCreation_thenReturnsCreatedUser() {
+        User user = User.builder().id(1L).email("user@example.com").version(0L).build();
+
+        when(userServiceMock.createUser(any(UserRequest.class))).thenReturn(Mono.just(user));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{" +
+                        "\"email\":\"user@example.com\"," +
+                        "\"firstName\":\"John\"," +
+                        "\"lastName\":\"Doe\"," +
+                        "\"birthDate\":\"1990-01-01\"" +
+                        "}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists(HttpHeaders.LOCATION)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    public void getUser_whenUserNotFound_thenReturnsNotFound() {
+        Long userId = 1L;
+
+        when(userServiceMock.findById(userId)).thenReturn(Mono.error(new UserNotFoundException("User with id " + userId + " not found")));
+
+        webTestClient.get().uri("/users/{id}", userId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.NOT_FOUND.value())
+                .jsonPath("$.message").isEqualTo("User with id " + userId + " not found");
+    }
+
+    @Test
+    public void partialUpdateUser_whenIfMatchProvided_thenPassesExpectedVersion() {
+        Long userId = 1L;
+        User updatedUser = User.builder().id(userId).version(3L).build();
+
+        when(userServiceMock.partialUpdateUser(eq(userId), any(UserRequest.class), eq(2L))).thenReturn(Mono.just(updatedUser));
+
+        webTestClient.patch().uri("/users/{id}", userId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"phone\":\"1234567890\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    public void deleteUser_whenSuccessful_thenReturnsNoContent() {
+        Long userId = 1L;
+
+        when(userServiceMock.deleteUserById(userId, null)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/users/{id}", userId)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(userServiceMock).deleteUserById(userId, null);
+    }
+
+    @Test
+    public void getAllUsers_whenNdjsonRequested_thenStreamsOneUserPerLine() {
+        LocalDate from = LocalDate.now().minusYears(1);
+        LocalDate to = LocalDate.now();
+
+        when(userServiceMock.findAll(any(PageRequest.class), eq(from), eq(to)))
+                .thenReturn(Flux.just(User.builder().id(1L).build(), User.builder().id(2L).build()));
+
+        webTestClient.get().uri(uri -> uri.path("/users")
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(User.class).hasSize(2);
+    }
+}
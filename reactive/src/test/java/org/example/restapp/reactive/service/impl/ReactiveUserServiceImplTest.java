@@ -0,0 +1,113 @@
+package org.example.restapp.reactive.service.impl;
+
+import jakarta.validation.ValidationException;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.example.restapp.reactive.model.User;
+import org.example.restapp.reactive.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveUserServiceImplTest {
+
+    private static final int MIN_AGE = 18;
+
+    @Mock
+    private ReactiveUserRepository userRepositoryMock;
+
+    @InjectMocks
+    private ReactiveUserServiceImpl userService;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(userService, "MIN_AGE", MIN_AGE);
+        user = User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .version(2L)
+                .build();
+    }
+
+    @Test
+    void createUser_whenSuccessfulCreation_thenUsesSequenceId() {
+        UserRequest request = new UserRequest(user.getEmail(), user.getFirstName(), user.getLastName(), user.getBirthDate(), null, null);
+        when(userRepositoryMock.nextId()).thenReturn(Mono.just(51L));
+        when(userRepositoryMock.save(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(userService.createUser(request))
+                .expectNextMatches(created -> created.getId() == 51L && created.getUpdatedAt() != null)
+                .verifyComplete();
+    }
+
+    @Test
+    void createUser_whenUnderage_thenFailsWithValidationException() {
+        UserRequest request = new UserRequest(user.getEmail(), user.getFirstName(), user.getLastName(),
+                LocalDate.now().minusYears(MIN_AGE - 1), null, null);
+        when(userRepositoryMock.nextId()).thenReturn(Mono.just(51L));
+
+        StepVerifier.create(userService.createUser(request))
+                .expectError(ValidationException.class)
+                .verify();
+        verify(userRepositoryMock, never()).save(any(User.class));
+    }
+
+    @Test
+    void findById_whenUserNotFound_thenFailsWithUserNotFoundException() {
+        when(userRepositoryMock.findById(2L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.findById(2L))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void partialUpdateUser_whenExpectedVersionIsStale_thenFailsWithVersionMismatch() {
+        when(userRepositoryMock.findById(user.getId())).thenReturn(Mono.just(user));
+
+        StepVerifier.create(userService.partialUpdateUser(user.getId(), new UserRequest(), 1L))
+                .expectError(UserVersionMismatchException.class)
+                .verify();
+        verify(userRepositoryMock, never()).save(any(User.class));
+    }
+
+    @Test
+    void deleteUserById_whenNothingDeleted_thenFailsWithUserNotFoundException() {
+        when(userRepositoryMock.removeById(2L)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(userService.deleteUserById(2L, null))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void findAll_whenNoSortRequested_thenOrdersById() {
+        when(userRepositoryMock.findAllBy(any(Pageable.class))).thenReturn(Flux.just(user));
+
+        StepVerifier.create(userService.findAll(PageRequest.of(1, 10), null, null))
+                .expectNext(user)
+                .verifyComplete();
+        verify(userRepositoryMock).findAllBy(PageRequest.of(1, 10, Sort.by("id")));
+    }
+}
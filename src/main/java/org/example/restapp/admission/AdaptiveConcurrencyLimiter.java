@@ -0,0 +1,86 @@
+package org.example.restapp.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps concurrent database calls at a limit that adapts to how the database copes (additive increase,
+ * multiplicative decrease). A call that finishes within the latency threshold while the limit was actually in
+ * use raises the limit by one; a slower or failed call lowers it by the backoff ratio, once per limit value, so
+ * a wave of slow calls that all started under the same limit only counts as one signal. Calls beyond the limit
+ * are shed before they queue on the connection pool and drive latency up further.
+ * <p>
+ * The limit and the in-flight count are plain atomics; acquiring is a compare-and-set loop.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                                      double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    /**
+     * Admits a call if the limit allows it, or returns null.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            int currentLimit = limit.get();
+            if (current >= currentLimit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(currentLimit, current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Admits a call regardless of the limit, for work that must not be shed; it still counts as in flight.
+     */
+    public Permit acquire() {
+        return new Permit(limit.get(), inFlight.incrementAndGet(), System.nanoTime());
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public final class Permit {
+
+        private final int limitAtStart;
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Permit(int limitAtStart, int inFlightAtStart, long startNanos) {
+            this.limitAtStart = limitAtStart;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        public void release(boolean failed) {
+            inFlight.decrementAndGet();
+            if (failed || System.nanoTime() - startNanos > latencyThresholdNanos) {
+                limit.compareAndSet(limitAtStart, Math.max(minLimit, (int) (limitAtStart * backoffRatio)));
+            } else if (inFlightAtStart * 2 >= limitAtStart) {
+                // Growing while mostly idle would let the limit drift far above anything it was tested at
+                limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+            }
+        }
+    }
+}
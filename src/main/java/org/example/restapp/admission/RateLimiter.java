@@ -0,0 +1,58 @@
+package org.example.restapp.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per client, refilled at {@code rate} tokens per second up to {@code burst} tokens. Each bucket
+ * is kept as the single time at which it would be full again (the generic cell rate algorithm), so taking
+ * tokens is one compare-and-set on an {@link AtomicLong} and clients never contend on a shared lock. An idle
+ * bucket is full, so buckets are dropped once they have been idle long enough to refill.
+ */
+public class RateLimiter {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int burst;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(double rate, int burst, long maxClients, Ticker ticker) {
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burstNanos = nanosPerToken * burst;
+        this.burst = burst;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .maximumSize(maxClients)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes {@code cost} tokens from the client's bucket. Returns zero when they were taken, or else how long
+     * until they will be available, in which case nothing is taken.
+     */
+    public Duration tryAcquire(String client, int cost) {
+        // Costlier than a full bucket would never pass, so it waits for a full bucket instead
+        long increment = Math.min(cost, burst) * nanosPerToken;
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(ticker.read()));
+        while (true) {
+            long now = ticker.read();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + increment;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
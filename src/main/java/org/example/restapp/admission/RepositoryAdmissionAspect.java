@@ -0,0 +1,42 @@
+package org.example.restapp.admission;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.restapp.exception.ServiceOverloadedException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Puts the {@link AdaptiveConcurrencyLimiter} in front of {@code UserRepository}. Only calls made while serving
+ * a request are shed; background work (write-behind flushes, the outbox relay, seeding) is counted but always
+ * admitted, since failing it would only move the load to a retry.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryAdmissionAspect {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Around("execution(* org.example.restapp.repository.UserRepository+.*(..))")
+    public Object admit(ProceedingJoinPoint joinPoint) throws Throwable {
+        AdaptiveConcurrencyLimiter.Permit permit = RequestContextHolder.getRequestAttributes() != null
+                ? limiter.tryAcquire()
+                : limiter.acquire();
+        if (permit == null) {
+            throw new ServiceOverloadedException(limiter.limit());
+        }
+
+        boolean failed = false;
+        try {
+            return joinPoint.proceed();
+        } catch (TransientDataAccessException e) {
+            // Lock and query timeouts are the database saying it is overloaded; other failures say nothing
+            failed = true;
+            throw e;
+        } finally {
+            permit.release(failed);
+        }
+    }
+}
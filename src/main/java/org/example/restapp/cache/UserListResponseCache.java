@@ -0,0 +1,134 @@
+package org.example.restapp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.example.restapp.event.UserChangedEvent;
+import org.example.restapp.event.UsersSeededEvent;
+import org.example.restapp.model.User;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps list pages as the bytes sent to the client, one entry per page and format, so repeated reads of a hot
+ * page skip the database, entity hydration and serialization. Every committed user change bumps a generation
+ * counter, and an entry is only served while its generation is current. The generation is read before the page
+ * is loaded, so a page loaded while a change commits is tagged with the older generation and never served after
+ * it.
+ * <p>
+ * Requests pinned to the primary after a write bypass the cache: an entry for the current generation may still
+ * have been loaded from a replica that had not replayed that write.
+ * <p>
+ * Bulk seeding invalidates every entry once it completes. Rows written by the reactive variant publish no events
+ * and show up once entries expire.
+ */
+public class UserListResponseCache {
+
+    public static final String CACHE_NAME = "userListResponses";
+
+    private final Map<MediaType, ObjectMapper> encoders;
+    private final Cache<Key, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param encoders the formats pages can be encoded in, in order of preference
+     */
+    public UserListResponseCache(Map<MediaType, ObjectMapper> encoders, MeterRegistry meterRegistry, Duration ttl,
+                                 long maximumBytes) {
+        this.encoders = encoders;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> entry.page().body().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onUsersSeeded(UsersSeededEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public EncodedPage get(Key key, Supplier<List<User>> loader) {
+        if (ReplicaRoutingDataSource.isPrimaryOnly()) {
+            return encode(loader.get(), key.format());
+        }
+
+        long current = generation.get();
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null && cached.generation() == current) {
+            return cached.page();
+        }
+
+        EncodedPage page = encode(loader.get(), key.format());
+        // A slower load that started before a change must not replace a page loaded after it
+        entries.asMap().merge(key, new Entry(current, page),
+                (existing, loaded) -> existing.generation() > loaded.generation() ? existing : loaded);
+        return page;
+    }
+
+    /**
+     * The formats pages can be encoded in, in order of preference.
+     */
+    public Set<MediaType> formats() {
+        return encoders.keySet();
+    }
+
+    private EncodedPage encode(List<User> users, MediaType format) {
+        try {
+            return new EncodedPage(encoders.get(format).writeValueAsBytes(users), eTag(users, format));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user page", e);
+        }
+    }
+
+    // Page composition can change without any row's updatedAt moving, so lists only get an ETag. It covers the
+    // format too, as each representation needs its own strong validator
+    private static String eTag(List<User> users, MediaType format) {
+        StringBuilder versions = new StringBuilder(format.toString()).append(';');
+        for (User user : users) {
+            versions.append(user.getId()).append(':').append(user.getVersion()).append(',');
+        }
+        return DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A list query as the service sees it, where the date range only applies when both ends are given, and the
+     * format to encode it in.
+     */
+    public record Key(int page, int size, LocalDate from, LocalDate to, MediaType format) {
+
+        public static Key of(int page, int size, LocalDate from, LocalDate to, MediaType format) {
+            boolean ranged = Objects.nonNull(from) && Objects.nonNull(to);
+            return new Key(page, size, ranged ? from : null, ranged ? to : null, format);
+        }
+    }
+
+    public record EncodedPage(byte[] body, String eTag) {
+    }
+
+    private record Entry(long generation, EncodedPage page) {
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.restapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.example.restapp.model.User;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Caches users as immutable snapshots and hands every reader its own {@link User}. Entities are mutable and
+ * the cache is shared across requests and threads, so storing the instance itself would let one caller that
+ * changes a returned user, or keeps working on the managed entity it put, alter what everyone else reads.
+ */
+public class UserSnapshotCache extends CaffeineCache {
+
+    public UserSnapshotCache(String name, Cache<Object, Object> cache) {
+        super(name, cache);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        Object value = userValue instanceof User user ? Snapshot.of(user) : userValue;
+        return super.toStoreValue(value);
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        Object value = super.fromStoreValue(storeValue);
+        return value instanceof Snapshot snapshot ? snapshot.toUser() : value;
+    }
+
+    private record Snapshot(
+            Long id,
+            String email,
+            String firstName,
+            String lastName,
+            LocalDate birthDate,
+            String address,
+            String phone,
+            Long version,
+            Instant updatedAt
+    ) {
+
+        static Snapshot of(User user) {
+            return new Snapshot(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                    user.getBirthDate(), user.getAddress(), user.getPhone(), user.getVersion(), user.getUpdatedAt());
+        }
+
+        User toUser() {
+            return new User(id, email, firstName, lastName, birthDate, address, phone, version, updatedAt);
+        }
+    }
+}
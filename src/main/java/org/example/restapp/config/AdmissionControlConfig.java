@@ -0,0 +1,69 @@
+package org.example.restapp.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.restapp.admission.AdaptiveConcurrencyLimiter;
+import org.example.restapp.admission.RateLimiter;
+import org.example.restapp.admission.RepositoryAdmissionAspect;
+import org.example.restapp.filter.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Two layers: per-client token buckets answer 429 before a request does any work, and an adaptive limit on
+// database calls answers 503 once the database itself slows down, whichever clients the load comes from
+@Configuration
+public class AdmissionControlConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "user.rate-limit", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${user.rate-limit.max-clients}") long maxClients,
+            @Value("${user.rate-limit.read.rate}") double readRate,
+            @Value("${user.rate-limit.read.burst}") int readBurst,
+            @Value("${user.rate-limit.write.rate}") double writeRate,
+            @Value("${user.rate-limit.write.burst}") int writeBurst,
+            @Value("${user.rate-limit.size-unit}") int sizeUnit) {
+        RateLimitFilter filter = new RateLimitFilter(
+                new RateLimiter(readRate, readBurst, maxClients, Ticker.systemTicker()),
+                new RateLimiter(writeRate, writeBurst, maxClients, Ticker.systemTicker()),
+                sizeUnit, meterRegistry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/users/*", "/users");
+        // Ahead of the concurrency limit filter, so rejected clients never hold a permit
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "user.admission", name = "enabled", havingValue = "true")
+    static class RepositoryAdmissionConfig {
+
+        @Bean
+        public AdaptiveConcurrencyLimiter repositoryConcurrencyLimiter(
+                MeterRegistry meterRegistry,
+                @Value("${user.admission.initial-limit}") int initialLimit,
+                @Value("${user.admission.min-limit}") int minLimit,
+                @Value("${user.admission.max-limit}") int maxLimit,
+                @Value("${user.admission.latency-threshold}") Duration latencyThreshold,
+                @Value("${user.admission.backoff-ratio}") double backoffRatio) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio);
+            Gauge.builder("user.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit).register(meterRegistry);
+            Gauge.builder("user.admission.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight).register(meterRegistry);
+            return limiter;
+        }
+
+        @Bean
+        public RepositoryAdmissionAspect repositoryAdmissionAspect(AdaptiveConcurrencyLimiter limiter) {
+            return new RepositoryAdmissionAspect(limiter);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.restapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.restapp.cache.UserListResponseCache;
+import org.example.restapp.cache.UserSnapshotCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+// Cache advice wraps the transactional one, so puts and evictions only happen after commit
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+    public static final String MISSING_USERS_CACHE = "missingUsers";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${user.cache.maximum-size}") long maximumSize,
+                                     @Value("${user.cache.ttl}") Duration ttl,
+                                     @Value("${user.cache.negative-ttl}") Duration negativeTtl) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new UserSnapshotCache(USERS_CACHE, caffeine(maximumSize, ttl)),
+                new CaffeineCache(MISSING_USERS_CACHE, caffeine(maximumSize, negativeTtl))));
+        return cacheManager;
+    }
+
+    @Bean
+    public UserListResponseCache userListResponseCache(ObjectMapper objectMapper,
+                                                       MappingJackson2SmileHttpMessageConverter smileConverter,
+                                                       MappingJackson2CborHttpMessageConverter cborConverter,
+                                                       MeterRegistry meterRegistry,
+                                                       @Value("${user.cache.list.ttl}") Duration ttl,
+                                                       @Value("${user.cache.list.max-size}") DataSize maxSize) {
+        Map<MediaType, ObjectMapper> encoders = new LinkedHashMap<>();
+        encoders.put(MediaType.APPLICATION_JSON, objectMapper);
+        encoders.put(ContentFormatConfig.APPLICATION_SMILE, smileConverter.getObjectMapper());
+        encoders.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+        return new UserListResponseCache(encoders, meterRegistry, ttl, maxSize.toBytes());
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
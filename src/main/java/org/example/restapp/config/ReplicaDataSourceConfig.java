@@ -0,0 +1,68 @@
+package org.example.restapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.example.restapp.filter.ReadYourWritesFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Only active when a replica URL is configured; without one the auto-configured single datasource is used
+@Configuration
+@ConditionalOnProperty(prefix = "user.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("HikariPool-primary");
+        return primary;
+    }
+
+    @Bean
+    @ConfigurationProperties("user.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${user.datasource.replica.url}") String url,
+                                              @Value("${user.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${user.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("HikariPool-replica");
+        // A write that reaches the replica by mistake fails instead of being silently lost or rejected later
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return ReplicaRoutingDataSource.lazy(primary, replica);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${user.datasource.replica.sticky-window}") Duration stickyWindow,
+            @Value("${user.datasource.replica.max-sticky-clients}") long maxStickyClients) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow, maxStickyClients));
+        registration.addUrlPatterns("/users/*", "/users");
+        return registration;
+    }
+}
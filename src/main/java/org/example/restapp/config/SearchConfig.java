@@ -0,0 +1,46 @@
+package org.example.restapp.config;
+
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.event.UsersSeededEvent;
+import org.example.restapp.repository.UserRepository;
+import org.example.restapp.search.InMemoryUserSearchIndex;
+import org.example.restapp.search.PostgresUserSearchIndex;
+import org.example.restapp.search.UserSearchIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "user.search.index", havingValue = "postgres", matchIfMissing = true)
+    public UserSearchIndex postgresUserSearchIndex(UserRepository userRepository) {
+        return new PostgresUserSearchIndex(userRepository);
+    }
+
+    @Configuration
+    @RequiredArgsConstructor
+    @ConditionalOnProperty(name = "user.search.index", havingValue = "memory")
+    static class InMemorySearchConfig {
+
+        private final UserRepository userRepository;
+        private final TransactionTemplate transactionTemplate;
+
+        @Bean
+        public InMemoryUserSearchIndex inMemoryUserSearchIndex() {
+            return new InMemoryUserSearchIndex();
+        }
+
+        // Seeding runs after the application is ready and writes around the service, so the index is reloaded
+        // once it has finished; indexing a user again replaces its previous entries
+        @EventListener({ApplicationReadyEvent.class, UsersSeededEvent.class})
+        public void loadIndex() {
+            InMemoryUserSearchIndex index = inMemoryUserSearchIndex();
+            transactionTemplate.executeWithoutResult(status -> userRepository.streamAll().forEach(index::index));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.restapp.config;
+
+import org.example.restapp.filter.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Virtual threads remove the Tomcat thread cap, so the database pool becomes the only brake;
+// admit just enough requests to keep the Hikari pool busy instead of queueing thousands on it
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${user.virtual-threads.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${user.virtual-threads.acquire-timeout}") Duration acquireTimeout) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeout, Set.of("/users/changes")));
+        registration.addUrlPatterns("/users/*", "/users");
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.restapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.restapp.service.UserService;
+import org.example.restapp.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Off by default; when on, PUT and PATCH requests sent with "Prefer: respond-async" are queued instead of written
+@Configuration
+@ConditionalOnProperty(prefix = "user.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    // Eager even with lazy initialization, so journaled updates are replayed at startup and not on first use
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @Lazy(false)
+    public WriteBehindQueue writeBehindQueue(UserService userService, TransactionTemplate transactionTemplate,
+                                             CacheManager cacheManager, ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${user.write-behind.journal}") Path journal,
+                                             @Value("${user.write-behind.capacity}") int capacity,
+                                             @Value("${user.write-behind.batch-size}") int batchSize,
+                                             @Value("${user.write-behind.flush-interval}") Duration flushInterval,
+                                             @Value("${user.write-behind.status-ttl}") Duration statusTtl,
+                                             @Value("${user.write-behind.max-journal-size}") DataSize maxJournalSize)
+            throws IOException {
+        return new WriteBehindQueue(userService, transactionTemplate, cacheManager, objectMapper, meterRegistry,
+                new WriteBehindQueue.Settings(journal, capacity, batchSize, flushInterval, statusTtl,
+                        maxJournalSize.toBytes()));
+    }
+}
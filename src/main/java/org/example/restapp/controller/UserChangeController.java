@@ -0,0 +1,32 @@
+package org.example.restapp.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.outbox.SseUserChangeStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+
+@RestController
+@RequestMapping("/users/changes")
+@RequiredArgsConstructor
+public class UserChangeController {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final SseUserChangeStream changeStream;
+
+    // A reconnecting EventSource resumes from Last-Event-ID; new consumers pick a starting offset,
+    // 0 for everything still retained, or nothing to only see changes from now on
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+            @RequestParam(value = "offset", required = false) Long offset) {
+        return changeStream.subscribe(Objects.nonNull(lastEventId) ? lastEventId : offset);
+    }
+}
@@ -2,84 +2,249 @@ package org.example.restapp.controller;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.restapp.cache.UserListResponseCache;
+import org.example.restapp.dto.UserBatchResult;
+import org.example.restapp.dto.UserLookup;
 import org.example.restapp.dto.UserRequest;
-import org.example.restapp.dto.ExceptionResponse;
-import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.dto.UserSlice;
+import org.example.restapp.dto.UserUpdateStatus;
+import org.example.restapp.exception.UpdateNotFoundException;
 import org.example.restapp.model.User;
 import org.example.restapp.service.UserService;
+import org.example.restapp.validation.UserValidationRules;
+import org.example.restapp.writebehind.WriteBehindQueue;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+@Slf4j
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String PREFER_HEADER = "Prefer";
+    static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
     private final UserService userService;
+    private final UserListResponseCache userListResponseCache;
+    // Available only when user.write-behind.enabled is set
+    private final ObjectProvider<WriteBehindQueue> writeBehindQueue;
 
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody UserRequest request) {
-        System.out.println("Inside createUser method");
         User user = userService.createUser(request);
+        log.debug("Created user id={}", user.getId());
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(user.getId())
                 .toUri();
-        return ResponseEntity.created(location).body(user);
+        return withValidators(ResponseEntity.created(location), user).body(user);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserBatchResult>> createUsers(@RequestBody List<UserRequest> requests) {
+        List<UserBatchResult> results = userService.createUsers(requests);
+        return ResponseEntity.ok(results);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<User> getUser(@PathVariable Long id) {
         User user = userService.findById(id);
-        return ResponseEntity.ok(user);
+        return withValidators(ResponseEntity.ok(), user).body(user);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody UserRequest user) {
-        User updatedUser = userService.updateUser(id, user);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UserRequest user,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        WriteBehindQueue queue = asyncQueue(prefer);
+        if (Objects.nonNull(queue)) {
+            return accepted(queue.submit(id, user, false, UserPreconditions.expectedVersion(id, ifMatch)));
+        }
+        User updatedUser = userService.updateUser(id, user, UserPreconditions.expectedVersion(id, ifMatch));
+        return withValidators(ResponseEntity.ok(), updatedUser).body(updatedUser);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<User> partialUpdateUser(@PathVariable Long id, @RequestBody UserRequest user) {
-        User updatedUser = userService.partialUpdateUser(id, user);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<?> partialUpdateUser(@PathVariable Long id, @RequestBody UserRequest user,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        WriteBehindQueue queue = asyncQueue(prefer);
+        if (Objects.nonNull(queue)) {
+            return accepted(queue.submit(id, user, true, UserPreconditions.expectedVersion(id, ifMatch)));
+        }
+        User updatedUser = userService.partialUpdateUser(id, user, UserPreconditions.expectedVersion(id, ifMatch));
+        return withValidators(ResponseEntity.ok(), updatedUser).body(updatedUser);
+    }
+
+    @GetMapping("/updates/{trackingId}")
+    public ResponseEntity<UserUpdateStatus> getUpdateStatus(@PathVariable String trackingId) {
+        WriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (Objects.isNull(queue)) {
+            throw new UpdateNotFoundException(trackingId);
+        }
+        return ResponseEntity.ok(queue.getStatus(trackingId));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUserById(id);
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.deleteUserById(id, UserPreconditions.expectedVersion(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers(
+    public ResponseEntity<byte[]> getAllUsers(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "from", required = false)
             @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate from,
             @RequestParam(value = "to", required = false)
-            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to) {
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
 
-        PageRequest pageRequest = PageRequest.of(page, size);
+        MediaType format = listFormat(accept);
+        UserListResponseCache.EncodedPage users = userListResponseCache.get(
+                UserListResponseCache.Key.of(page, size, from, to, format),
+                () -> userService.findAll(PageRequest.of(page, size), from, to));
 
-        List<User> users = userService.findAll(pageRequest, from, to);
+        // Weak, as Tomcat leaves bodies with a strong ETag uncompressed; lists only serve If-None-Match anyway
+        return ResponseEntity.ok()
+                .contentType(format)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag("W/\"" + users.eTag() + "\"")
+                .body(users.body());
+    }
 
+    @GetMapping(params = {"fields", "!after"})
+    public ResponseEntity<List<Map<String, Object>>> getAllUsersFields(
+            @RequestParam(value = "fields") List<String> fields,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "from", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(value = "to", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to) {
+
+        List<Map<String, Object>> users = userService.findAllFields(PageRequest.of(page, size), from, to, fields);
         return ResponseEntity.ok(users);
     }
 
-    @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ExceptionResponse> handleUserNotFound(UserNotFoundException ex) {
-        ExceptionResponse response = new ExceptionResponse(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(), ex.getMessage());
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserLookup> getUsersByIds(@RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok(userService.findByIds(ids));
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<List<User>> getUsersAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "from", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(value = "to", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to) {
+
+        UserSlice slice = userService.findAllAfter(after, size, from, to);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, slice.nextCursor());
+        }
+        return response.body(slice.users());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<User>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(query, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(value = "from", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(value = "to", required = false)
+            @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd") LocalDate to) {
+
+        // Validate before the response is committed, the body itself is written on an async thread
+        if (Objects.nonNull(from) && Objects.nonNull(to)) {
+            UserValidationRules.requireValidDateRange(from, to);
+        }
+
+        StreamingResponseBody body = out -> userService.exportUsers(from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Pages are cached already encoded, so the list picks its format itself instead of leaving it to the message
+    // converters: the most specific accepted type wins, and wildcards fall back to the first (JSON)
+    private MediaType listFormat(String accept) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> formats = List.copyOf(userListResponseCache.formats());
+        if (Objects.isNull(accept) || accept.isBlank()) {
+            return formats.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException(e.getMessage());
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptedType : accepted) {
+            for (MediaType format : formats) {
+                if (acceptedType.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(formats);
+    }
+
+    // Only honoured when write-behind is enabled; otherwise the update runs synchronously as usual (RFC 7240)
+    private WriteBehindQueue asyncQueue(String prefer) {
+        if (Objects.isNull(prefer)
+                || Arrays.stream(prefer.split(",")).noneMatch(p -> p.trim().equalsIgnoreCase(RESPOND_ASYNC))) {
+            return null;
+        }
+        return writeBehindQueue.getIfAvailable();
+    }
+
+    private static ResponseEntity<UserUpdateStatus> accepted(UserUpdateStatus status) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/users/updates/{trackingId}")
+                .buildAndExpand(status.trackingId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(status);
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, User user) {
+        return UserPreconditions.withValidators(response, user.getVersion(), user.getUpdatedAt());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package org.example.restapp.controller;
+
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.Objects;
+
+// Shared by the servlet and reactive controllers so both stacks agree on the ETag format they hand out
+// and the If-Match values they accept
+public final class UserPreconditions {
+
+    private UserPreconditions() {
+    }
+
+    public static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, Long version,
+                                                            Instant updatedAt) {
+        if (Objects.nonNull(version)) {
+            response.eTag(String.valueOf(version));
+        }
+        if (Objects.nonNull(updatedAt)) {
+            response.lastModified(updatedAt);
+        }
+        return response;
+    }
+
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        // If-Match uses strong comparison, so weak or unparseable tags can never match
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new UserVersionMismatchException(id);
+        }
+        try {
+            return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new UserVersionMismatchException(id);
+        }
+    }
+}
@@ -1,12 +1,8 @@
 package org.example.restapp.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-
-import java.time.LocalDateTime;
-
+// The timestamp arrives formatted as yyyy-MM-dd HH:mm:ss, so the handler can reuse it within a second
 public record ExceptionResponse(
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd hh:mm:ss")
-        LocalDateTime timestamp,
+        String timestamp,
         int status,
         String message
 ) {}
@@ -0,0 +1,19 @@
+package org.example.restapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserBatchResult(
+        int index,
+        Long id,
+        String error
+) {
+
+    public static UserBatchResult created(int index, Long id) {
+        return new UserBatchResult(index, id, null);
+    }
+
+    public static UserBatchResult failed(int index, String error) {
+        return new UserBatchResult(index, null, error);
+    }
+}
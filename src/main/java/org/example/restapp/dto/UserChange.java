@@ -0,0 +1,31 @@
+package org.example.restapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.example.restapp.model.UserOutboxEntry;
+
+import java.time.Instant;
+
+/**
+ * A committed user mutation as seen by consumers. {@code offset} is the outbox position: gapless, increasing
+ * in publish order, and what a consumer passes back to resume. {@code user} is the user as written, already
+ * JSON, and absent for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserChange(
+        long offset,
+        Type type,
+        Long userId,
+        @JsonRawValue String user,
+        Instant occurredAt
+) {
+
+    public enum Type {
+        SAVED, DELETED
+    }
+
+    public static UserChange of(UserOutboxEntry entry) {
+        return new UserChange(entry.getPosition(), entry.getType(), entry.getUserId(), entry.getPayload(),
+                entry.getCreatedAt());
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.restapp.dto;
+
+import org.example.restapp.model.User;
+
+import java.util.List;
+
+// Users in the order their ids were requested; ids without a user are listed in missing instead of failing the lookup
+public record UserLookup(
+        List<User> users,
+        List<Long> missing
+) {
+}
@@ -0,0 +1,10 @@
+package org.example.restapp.dto;
+
+import org.example.restapp.model.User;
+
+import java.util.List;
+
+public record UserSlice(
+        List<User> users,
+        String nextCursor
+) {}
@@ -0,0 +1,29 @@
+package org.example.restapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserUpdateStatus(
+        String trackingId,
+        Long userId,
+        State state,
+        Long version,
+        String error
+) {
+
+    public enum State {
+        PENDING, APPLIED, FAILED
+    }
+
+    public static UserUpdateStatus pending(String trackingId, Long userId) {
+        return new UserUpdateStatus(trackingId, userId, State.PENDING, null, null);
+    }
+
+    public static UserUpdateStatus applied(String trackingId, Long userId, Long version) {
+        return new UserUpdateStatus(trackingId, userId, State.APPLIED, version, null);
+    }
+
+    public static UserUpdateStatus failed(String trackingId, Long userId, String error) {
+        return new UserUpdateStatus(trackingId, userId, State.FAILED, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.restapp.event;
+
+import org.example.restapp.model.User;
+
+// Published inside the writing transaction; user is null when the user was deleted
+public record UserChangedEvent(Long id, User user) {
+
+    public static UserChangedEvent saved(User user) {
+        return new UserChangedEvent(user.getId(), user);
+    }
+
+    public static UserChangedEvent deleted(Long id) {
+        return new UserChangedEvent(id, null);
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.restapp.event;
+
+// Published once bulk seeding has committed its rows; they were written with plain JDBC, so no
+// UserChangedEvent was published for any of them
+public record UsersSeededEvent(long count) {
+}
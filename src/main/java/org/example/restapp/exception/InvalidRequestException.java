@@ -0,0 +1,17 @@
+package org.example.restapp.exception;
+
+import jakarta.validation.ValidationException;
+
+// A ValidationException without a stack trace: it always answers 400 with its message, and batch validation
+// throws one per rejected item. ValidationException has no constructor to turn capture off, hence the override
+public class InvalidRequestException extends ValidationException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.restapp.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(int limit) {
+        super("Database is at its concurrency limit of " + limit + " calls, retry later");
+    }
+}
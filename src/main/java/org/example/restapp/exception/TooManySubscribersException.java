@@ -0,0 +1,8 @@
+package org.example.restapp.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super("Change stream is at its limit of " + maxSubscribers + " subscribers, retry later");
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.restapp.exception;
+
+public class UpdateNotFoundException extends RuntimeException {
+
+    public UpdateNotFoundException(String trackingId) {
+        super("Update with tracking id " + trackingId + " not found");
+    }
+}
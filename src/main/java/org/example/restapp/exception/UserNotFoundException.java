@@ -1,16 +1,18 @@
 package org.example.restapp.exception;
 
+// Thrown on every miss, and bots probing ids make misses common. The handler only needs the message, so no
+// stack trace is captured
 public class UserNotFoundException extends RuntimeException {
 
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public UserNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 
     public UserNotFoundException(Long id) {
-        super("User with id " + id + " not found");
+        this("User with id " + id + " not found");
     }
 }
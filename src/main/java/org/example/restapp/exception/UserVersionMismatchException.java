@@ -0,0 +1,12 @@
+package org.example.restapp.exception;
+
+public class UserVersionMismatchException extends RuntimeException {
+
+    public UserVersionMismatchException(String message) {
+        super(message);
+    }
+
+    public UserVersionMismatchException(Long id) {
+        super("User with id " + id + " has been modified");
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.restapp.exception;
+
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    public WriteBehindQueueFullException(int capacity) {
+        super("Update queue is full (" + capacity + " users pending), retry later");
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.restapp.exception.handler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Error bodies only carry the time to the second, so errors within the same second share one formatted
+// timestamp instead of each formatting its own. Racing threads at a second boundary may both format it, which
+// is harmless
+final class ErrorTimestamps {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Clock clock;
+    private volatile Formatted last = new Formatted(Long.MIN_VALUE, null);
+
+    ErrorTimestamps(Clock clock) {
+        this.clock = clock;
+    }
+
+    String now() {
+        long second = Math.floorDiv(clock.millis(), 1000);
+        Formatted current = last;
+        if (current.second() != second) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), clock.getZone());
+            current = new Formatted(second, FORMAT.format(time));
+            last = current;
+        }
+        return current.text();
+    }
+
+    private record Formatted(long second, String text) {
+    }
+}
@@ -1,27 +1,103 @@
 package org.example.restapp.exception.handler;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
 import org.example.restapp.dto.ExceptionResponse;
+import org.example.restapp.exception.ServiceOverloadedException;
+import org.example.restapp.exception.TooManySubscribersException;
+import org.example.restapp.exception.UpdateNotFoundException;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.example.restapp.exception.WriteBehindQueueFullException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.time.LocalDateTime;
+import java.time.Clock;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    static final String ERRORS_METRIC = "user.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final ErrorTimestamps timestamps = new ErrorTimestamps(Clock.systemDefaultZone());
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ExceptionResponse> handleUserNotFound(UserNotFoundException ex) {
+        return respond(ex, HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(UpdateNotFoundException.class)
+    public ResponseEntity<ExceptionResponse> handleUpdateNotFound(UpdateNotFoundException ex) {
+        return respond(ex, HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler({WriteBehindQueueFullException.class, TooManySubscribersException.class,
+            ServiceOverloadedException.class})
+    public ResponseEntity<ExceptionResponse> handleServiceUnavailable(RuntimeException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return respond(ex, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), headers);
+    }
+
+    // Service-side validation failures, including the stackless InvalidRequestException
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ExceptionResponse> handleValidationException(ValidationException ex) {
+        return respond(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ExceptionResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
-        ExceptionResponse exceptionResponse = new ExceptionResponse(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(), ex.getRootCause().getMessage());
-        return new ResponseEntity<>(exceptionResponse, HttpStatus.BAD_REQUEST);
+        return respond(ex, HttpStatus.BAD_REQUEST, ex.getRootCause().getMessage());
+    }
+
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<ExceptionResponse> handleUserVersionMismatchException(UserVersionMismatchException ex) {
+        return respond(ex, HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ExceptionResponse> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        return respond(ex, HttpStatus.CONFLICT, "User has been modified concurrently");
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ExceptionResponse> handleInternalServerError(Exception ex) {
-        ExceptionResponse exceptionResponse = new ExceptionResponse(LocalDateTime.now(), HttpStatus.BAD_REQUEST.value(), ex.getMessage());
-        return new ResponseEntity<>(exceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        return respond(ex, HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    }
+
+    // Spring MVC's own exceptions (unreadable body, missing parameter, ...) are resolved by the base class
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        countError(ex, statusCode);
+        return super.handleExceptionInternal(ex, body, headers, statusCode, request);
+    }
+
+    private ResponseEntity<ExceptionResponse> respond(Exception ex, HttpStatus status, String message) {
+        return respond(ex, status, message, HttpHeaders.EMPTY);
+    }
+
+    private ResponseEntity<ExceptionResponse> respond(Exception ex, HttpStatus status, String message,
+                                                      HttpHeaders headers) {
+        countError(ex, status);
+        ExceptionResponse exceptionResponse = new ExceptionResponse(timestamps.now(), status.value(), message);
+        return new ResponseEntity<>(exceptionResponse, headers, status);
+    }
+
+    private void countError(Exception ex, HttpStatusCode status) {
+        meterRegistry.counter(ERRORS_METRIC,
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
     }
 }
@@ -0,0 +1,71 @@
+package org.example.restapp.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.restapp.admission.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+// Separate read and write budgets per client address. Nothing authenticates a client-supplied key, so one
+// would let a client rotate into a fresh bucket on every request and crowd other clients out of the bucket map.
+// A read costs a token per started size-unit rows it asks for, so one huge page counts like many small ones
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "user.ratelimit.rejected";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final RateLimiter reads;
+    private final RateLimiter writes;
+    private final int sizeUnit;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimiter reads, RateLimiter writes, int sizeUnit, MeterRegistry meterRegistry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.sizeUnit = sizeUnit;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = READ_METHODS.contains(request.getMethod());
+        Duration wait = read
+                ? reads.tryAcquire(request.getRemoteAddr(), cost(request))
+                : writes.tryAcquire(request.getRemoteAddr(), 1);
+
+        if (!wait.isZero()) {
+            meterRegistry.counter(REJECTED_METRIC, "type", read ? "read" : "write").increment();
+            // Whole seconds, rounded up so a client that honours it is admitted on its next try
+            long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private int cost(HttpServletRequest request) {
+        String size = request.getParameter("size");
+        if (Objects.isNull(size)) {
+            return 1;
+        }
+        try {
+            int rows = Integer.parseInt(size.trim());
+            return rows <= 0 ? 1 : (rows - 1) / sizeUnit + 1;
+        } catch (NumberFormatException e) {
+            // Rejected by the controller anyway
+            return 1;
+        }
+    }
+}
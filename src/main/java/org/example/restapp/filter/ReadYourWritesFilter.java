@@ -0,0 +1,49 @@
+package org.example.restapp.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// Keeps a client on the primary for a short window after it writes, so it never reads a replica that has
+// not replayed its own change yet. Clients are told apart by address, like the rate limiter: a header the
+// client chooses itself would let anyone pin arbitrary keys to the primary or fill the table with fresh ones
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration stickyWindow, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = request.getRemoteAddr();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            // Recorded up front: the client may issue its next read as soon as the response is committed
+            recentWriters.put(client, Boolean.TRUE);
+        }
+
+        ReplicaRoutingDataSource.setPrimaryOnly(write || recentWriters.getIfPresent(client) != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryOnly(false);
+        }
+    }
+}
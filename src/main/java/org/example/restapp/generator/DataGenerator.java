@@ -1,36 +1,192 @@
 package org.example.restapp.generator;
 
 import com.github.javafaker.Faker;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.example.restapp.model.User;
-import org.example.restapp.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.example.restapp.event.UsersSeededEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Seeds fake users once the application is ready, without blocking startup. Rows are generated in batches by
+ * a pool of workers, each with its own {@link Faker}, and written with plain JDBC batch inserts.
+ * <p>
+ * Ids come from {@code users_seq} the same way Hibernate's pooled-lo optimizer takes them: every
+ * {@code nextval} reserves {@value #ID_BLOCK_SIZE} ids starting at the returned value, so seeding can run
+ * while the API is already creating users. Emails embed the row index, which keeps them unique for any count.
+ * Each batch reseeds its worker's {@link Random} from the configured seed and the batch index, so the same
+ * seed produces the same names and emails regardless of how batches are spread across workers.
+ * <p>
+ * The inserts bypass the service and its {@code UserChangedEvent}s, so a {@link UsersSeededEvent} is published
+ * once all batches have committed, before {@link #awaitCompletion} returns, for listeners that keep their own
+ * copy of the table.
+ * <p>
+ * Faker is an optional dependency left out of the executable jar, so production never loads it or its locale
+ * data; the generator only exists where Faker is on the classpath, as with {@code spring-boot:run} and tests.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnClass(name = "com.github.javafaker.Faker")
+@ConditionalOnProperty(prefix = "user.generator", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class DataGenerator {
 
-    private final UserRepository userRepository;
+    // Must match allocationSize of the users_seq generator on User
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+    private static final String INSERT_USER = """
+            insert into users (id, email, first_name, last_name, birth_date, address, phone, version, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, 0, ?)""";
 
-    @PostConstruct
-    public void init() {
-        generateUsers();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${user.generator.count:30}")
+    private long count;
+
+    @Value("${user.generator.seed:42}")
+    private long seed;
+
+    @Value("${user.generator.threads:4}")
+    private int threads;
+
+    @Value("${user.generator.batch-size:1000}")
+    private int batchSize;
+
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+    private final AtomicLong nextBatch = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong lastProgressNanos = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateUsers() {
+        // Data survives restarts, and reseeding with the same seed would regenerate the same emails
+        Long existing = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        if (existing > 0) {
+            log.info("Skipping seeding, users table already has {} rows", existing);
+            completion.complete(0L);
+            return;
+        }
+
+        long batches = (count + batchSize - 1) / batchSize;
+        int workers = (int) Math.max(1, Math.min(threads, batches));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "data-generator-" + threadIndex.incrementAndGet()));
+
+        long start = System.nanoTime();
+        lastProgressNanos.set(start);
+        log.info("Seeding {} users with {} threads in batches of {}", count, workers, batchSize);
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            tasks.add(CompletableFuture.runAsync(() -> insertBatches(batches, start), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).whenComplete((ignored, ex) -> {
+            executor.shutdown();
+            if (ex != null) {
+                log.error("Seeding users failed after {} rows", inserted.get(), ex);
+                completion.completeExceptionally(ex);
+                return;
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            log.info("Seeded {} users in {} ms ({} rows/s)", inserted.get(), elapsed.toMillis(), rate(start));
+            try {
+                eventPublisher.publishEvent(new UsersSeededEvent(inserted.get()));
+            } catch (RuntimeException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            completion.complete(inserted.get());
+        });
     }
 
-    private void generateUsers() {
-        Faker faker = new Faker();
-        for (int i = 0; i < 30; i++) {
-            User user = new User();
-            user.setFirstName(faker.name().firstName());
-            user.setLastName(faker.name().lastName());
-            user.setEmail(faker.internet().emailAddress());
-            user.setPhone(faker.phoneNumber().phoneNumber());
-            user.setBirthDate(LocalDate.ofInstant(faker.date().birthday(18, 65).toInstant(), ZoneId.systemDefault()));
-            userRepository.save(user);
+    /**
+     * Blocks until seeding has finished and returns the number of rows inserted.
+     */
+    public long awaitCompletion(Duration timeout) throws InterruptedException, TimeoutException {
+        try {
+            return completion.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding users failed", e.getCause());
         }
     }
+
+    private void insertBatches(long batches, long start) {
+        Random random = new Random();
+        Faker faker = new Faker(random);
+        Instant now = Instant.now();
+        for (long batch = nextBatch.getAndIncrement(); batch < batches; batch = nextBatch.getAndIncrement()) {
+            random.setSeed(seed ^ batch);
+            long first = batch * batchSize;
+            List<Object[]> rows = generateRows(faker, first, (int) Math.min(batchSize, count - first), now);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, rows));
+            inserted.addAndGet(rows.size());
+            reportProgress(start);
+        }
+    }
+
+    private List<Object[]> generateRows(Faker faker, long first, int size, Instant now) {
+        List<Object[]> rows = new ArrayList<>(size);
+        Timestamp updatedAt = Timestamp.from(now);
+        long id = 0;
+        for (int i = 0; i < size; i++) {
+            if (i % ID_BLOCK_SIZE == 0) {
+                id = jdbcTemplate.queryForObject("select nextval('users_seq')", Long.class);
+            }
+            long index = first + i;
+            String firstName = faker.name().firstName();
+            String lastName = faker.name().lastName();
+            rows.add(new Object[]{
+                    id++,
+                    firstName.toLowerCase() + "." + lastName.toLowerCase() + "." + index + "@" + faker.internet().domainName(),
+                    firstName,
+                    lastName,
+                    Date.valueOf(LocalDate.ofInstant(faker.date().birthday(18, 65).toInstant(), ZoneId.systemDefault())),
+                    faker.address().fullAddress(),
+                    faker.phoneNumber().phoneNumber(),
+                    updatedAt
+            });
+        }
+        return rows;
+    }
+
+    private void reportProgress(long start) {
+        long now = System.nanoTime();
+        long last = lastProgressNanos.get();
+        if (now - last >= PROGRESS_INTERVAL.toNanos() && lastProgressNanos.compareAndSet(last, now)) {
+            log.info("Seeded {}/{} users ({} rows/s)", inserted.get(), count, rate(start));
+        }
+    }
+
+    private long rate(long start) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return inserted.get() * 1_000_000_000L / elapsedNanos;
+    }
 }
@@ -0,0 +1,35 @@
+package org.example.restapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.restapp.dto.UserChange;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_outbox")
+public class UserOutboxEntry {
+    // Identity rather than a sequence: rows are batch-inserted with plain JDBC and never persisted through JPA
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UserChange.Type type;
+    @Column(columnDefinition = "text")
+    private String payload;
+    @Column(nullable = false)
+    private Instant createdAt;
+    @Column(unique = true)
+    private Long position;
+    private Instant publishedAt;
+}
@@ -0,0 +1,187 @@
+package org.example.restapp.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.restapp.dto.UserChange;
+import org.example.restapp.exception.TooManySubscribersException;
+import org.example.restapp.repository.UserOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves relayed user changes as Server-Sent Events. A subscriber first catches up from the outbox, starting
+ * after the offset it asked for, and then receives changes live as the relay publishes them. Every subscriber
+ * has its own bounded queue, drained by its own virtual thread, so a slow client never holds up the relay or
+ * other subscribers. Live changes queue up while it is still catching up, and anything at or below the last
+ * offset sent is dropped, so the stream has no gaps and no duplicates across the switch.
+ * <p>
+ * Only changes made through this application reach the outbox. The reactive variant writes the users table
+ * directly, so its changes never appear on the stream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SseUserChangeStream implements UserChangeSink {
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+    // A subscriber that cannot keep up is closed and reconnects with Last-Event-ID instead of buffering forever
+    private static final int MAX_BUFFERED_CHANGES = 10_000;
+    // How often an idle subscriber thread checks whether its client has gone away
+    private static final Duration IDLE_POLL = Duration.ofSeconds(1);
+
+    private final UserOutboxRepository outboxRepository;
+
+    @Value("${user.changes.max-subscribers}")
+    private int maxSubscribers;
+
+    @Value("${user.changes.timeout}")
+    private Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService subscriberExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Opens a stream of the changes after {@code offset}, or of changes from now on when it is null.
+     */
+    public SseEmitter subscribe(Long offset) {
+        long after = Objects.nonNull(offset) ? offset : outboxRepository.findMaxPosition();
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, after);
+        // Registered before catching up, so every change published from here on reaches the queue
+        register(subscriber);
+        emitter.onCompletion(subscriber::stop);
+        emitter.onTimeout(subscriber::stop);
+        emitter.onError(ex -> subscriber.stop());
+        subscriberExecutor.execute(subscriber);
+        return emitter;
+    }
+
+    // The size check and the add happen under one lock so concurrent subscribes cannot overshoot the limit;
+    // removals need no lock since they only ever make room
+    private void register(Subscriber subscriber) {
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new TooManySubscribersException(maxSubscribers);
+            }
+            subscribers.add(subscriber);
+        }
+    }
+
+    @Override
+    public void publish(List<UserChange> changes) {
+        subscribers.forEach(subscriber -> subscriber.offer(changes));
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscriberExecutor.shutdownNow();
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<UserChange> queue = new ArrayBlockingQueue<>(MAX_BUFFERED_CHANGES);
+        private volatile boolean closed;
+        // Written only by the subscriber's own thread
+        private long lastSent;
+
+        Subscriber(SseEmitter emitter, long after) {
+            this.emitter = emitter;
+            this.lastSent = after;
+        }
+
+        // Called on the relay thread, so it never blocks on the client
+        void offer(List<UserChange> changes) {
+            for (UserChange change : changes) {
+                if (closed) {
+                    return;
+                }
+                if (!queue.offer(change)) {
+                    close(new IllegalStateException("Subscriber fell too far behind"));
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                catchUp();
+                List<UserChange> batch = new ArrayList<>();
+                while (!closed) {
+                    UserChange next = queue.poll(IDLE_POLL.toMillis(), TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        continue;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch);
+                    send(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                close(e);
+            }
+        }
+
+        void stop() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void catchUp() throws IOException {
+            List<UserChange> page;
+            do {
+                page = outboxRepository.findSequencedAfter(lastSent, Limit.of(REPLAY_PAGE_SIZE)).stream()
+                        .map(UserChange::of)
+                        .toList();
+                send(page);
+            } while (page.size() == REPLAY_PAGE_SIZE && !closed);
+        }
+
+        private void send(List<UserChange> changes) throws IOException {
+            for (UserChange change : changes) {
+                if (change.offset() <= lastSent) {
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.offset()))
+                        .name(change.type().name().toLowerCase())
+                        .data(change, MediaType.APPLICATION_JSON));
+                lastSent = change.offset();
+            }
+        }
+
+        private void close(Exception cause) {
+            if (closed) {
+                return;
+            }
+            log.debug("Closing user change subscriber after offset {}", lastSent, cause);
+            stop();
+            emitter.completeWithError(cause);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.restapp.outbox;
+
+import org.example.restapp.dto.UserChange;
+
+import java.util.List;
+
+/**
+ * Destination for relayed user changes, e.g. a message broker. Every {@code UserChangeSink} bean receives each
+ * batch in offset order. A batch is only marked published once every sink has returned, so a sink that throws
+ * gets the same batch again on the next run and should tolerate duplicates by offset.
+ */
+public interface UserChangeSink {
+
+    void publish(List<UserChange> changes);
+}
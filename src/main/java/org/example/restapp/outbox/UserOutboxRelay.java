@@ -0,0 +1,131 @@
+package org.example.restapp.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.restapp.dto.UserChange;
+import org.example.restapp.model.UserOutboxEntry;
+import org.example.restapp.repository.UserOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves outbox rows to the {@link UserChangeSink}s. Rows are first given consecutive positions in id order,
+ * among the rows committed so far, and only then published in position order. A transaction that commits
+ * late just gets a later position, so consumers resuming from an offset never skip it. Changes to the same
+ * user are serialized by the row lock, so they always get positions in commit order.
+ * <p>
+ * The unique position constraint makes a second relay's batch fail rather than reuse positions, but sinks
+ * only see the changes relayed by their own instance. Enable the relay on one instance at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserOutboxRelay {
+
+    private static final String ASSIGN_POSITION = "update user_outbox set position = ? where id = ?";
+
+    private final UserOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<UserChangeSink> sinks;
+
+    @Value("${user.outbox.relay.enabled}")
+    private boolean enabled;
+
+    @Value("${user.outbox.relay.interval}")
+    private Duration interval;
+
+    @Value("${user.outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Value("${user.outbox.retention}")
+    private Duration retention;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "outbox-relay"));
+        scheduler.scheduleWithFixedDelay(this::relayAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::deleteExpired, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Sequences and publishes one batch and returns the number of changes published.
+     */
+    public synchronized int relay() {
+        sequence();
+        return publish();
+    }
+
+    private void relayAll() {
+        try {
+            while (relay() == batchSize) {
+                // keep going while full batches are waiting
+            }
+        } catch (RuntimeException e) {
+            log.error("Relaying user changes failed", e);
+        }
+    }
+
+    private void sequence() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = outboxRepository.findUnsequencedIds(Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            long position = outboxRepository.findMaxPosition();
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                rows.add(new Object[]{++position, id});
+            }
+            jdbcTemplate.batchUpdate(ASSIGN_POSITION, rows);
+        });
+    }
+
+    private int publish() {
+        List<UserOutboxEntry> entries = outboxRepository.findUnpublished(Limit.of(batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<UserChange> changes = entries.stream().map(UserChange::of).toList();
+        sinks.forEach(sink -> sink.publish(changes));
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.markPublished(
+                changes.getFirst().offset(), changes.getLast().offset(), Instant.now()));
+        return changes.size();
+    }
+
+    private void deleteExpired() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxRepository.deletePublishedBefore(Instant.now().minus(retention)));
+            log.debug("Deleted {} published user changes older than {}", deleted, retention);
+        } catch (RuntimeException e) {
+            log.error("Deleting expired user changes failed", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.restapp.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.dto.UserChange;
+import org.example.restapp.event.UserChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the {@link UserChangedEvent}s of a transaction into outbox rows inserted just before it commits, so a
+ * change is recorded exactly when the mutation is. Waiting for commit lets the pending UPDATEs flush first,
+ * which makes the payload carry the final version, and writes all of a transaction's rows in one JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserOutboxWriter {
+
+    private static final String INSERT_ENTRY = """
+            insert into user_outbox (user_id, type, payload, created_at)
+            values (?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("User " + event.id() + " changed outside a transaction");
+        }
+        @SuppressWarnings("unchecked")
+        List<UserChangedEvent> events = (List<UserChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            List<UserChangedEvent> transactionEvents = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactionEvents);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(transactionEvents);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(UserOutboxWriter.this);
+                }
+            });
+            events = transactionEvents;
+        }
+        events.add(event);
+    }
+
+    private void write(List<UserChangedEvent> events) {
+        entityManager.flush();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (UserChangedEvent event : events) {
+            rows.add(new Object[]{
+                    event.id(),
+                    (event.user() == null ? UserChange.Type.DELETED : UserChange.Type.SAVED).name(),
+                    payload(event),
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+    }
+
+    private String payload(UserChangedEvent event) {
+        if (event.user() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.user());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user " + event.id(), e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.restapp.repository;
+
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface UserFieldsRepository {
+
+    /**
+     * Selects only the given User attributes, without loading entities into the persistence context.
+     * Each row maps attribute name to value in the order of {@code fields}. A null {@code from} or {@code to}
+     * means no birth date filter.
+     */
+    List<Map<String, Object>> findFields(List<String> fields, LocalDate from, LocalDate to, Pageable pageable);
+}
@@ -0,0 +1,39 @@
+package org.example.restapp.repository;
+
+import org.example.restapp.model.UserOutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Read-write transactions throughout, so the relay and change stream always read the primary: a lagging
+// replica would make the relay publish rows twice and a catching-up subscriber skip offsets
+@Repository
+@Transactional
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEntry, Long> {
+
+    @Query("select e.id from UserOutboxEntry e where e.position is null order by e.id")
+    List<Long> findUnsequencedIds(Limit limit);
+
+    @Query("select coalesce(max(e.position), 0) from UserOutboxEntry e")
+    long findMaxPosition();
+
+    @Query("select e from UserOutboxEntry e where e.position is not null and e.publishedAt is null order by e.position")
+    List<UserOutboxEntry> findUnpublished(Limit limit);
+
+    @Query("select e from UserOutboxEntry e where e.position > :position order by e.position")
+    List<UserOutboxEntry> findSequencedAfter(long position, Limit limit);
+
+    @Modifying
+    @Query("update UserOutboxEntry e set e.publishedAt = :publishedAt where e.position between :first and :last")
+    int markPublished(long first, long last, Instant publishedAt);
+
+    @Modifying
+    @Query("delete from UserOutboxEntry e where e.createdAt < :before and e.publishedAt is not null")
+    int deletePublishedBefore(Instant before);
+}
@@ -1,14 +1,93 @@
 package org.example.restapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.restapp.model.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
     Page<User> findAllByBirthDateBetween(Pageable pageable, LocalDate from, LocalDate to);
+
+    Slice<User> findAllByIdGreaterThan(Long afterId, Pageable pageable);
+
+    @Query("""
+            select u from User u
+            where u.birthDate between :from and :to
+              and (u.birthDate > :afterBirthDate or (u.birthDate = :afterBirthDate and u.id > :afterId))
+            """)
+    Slice<User> findAllByBirthDateBetweenAfter(LocalDate from, LocalDate to,
+                                               LocalDate afterBirthDate, Long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u where u.birthDate between :from and :to order by u.id")
+    Stream<User> streamAllByBirthDateBetween(LocalDate from, LocalDate to);
+
+    // Each branch is an index range scan on a "C" collation prefix index that stops after :limit rows,
+    // so the cost does not depend on how many users share the prefix
+    @Query(value = """
+            select u.* from (
+                (select id, 0 as field from users
+                 where lower(first_name || ' ' || last_name) collate "C" like :prefix
+                 order by lower(first_name || ' ' || last_name) collate "C", id
+                 limit :limit)
+                union all
+                (select id, 1 from users
+                 where lower(last_name) collate "C" like :prefix
+                 order by lower(last_name) collate "C", id
+                 limit :limit)
+                union all
+                (select id, 2 from users
+                 where lower(email) collate "C" like :prefix
+                 order by lower(email) collate "C", id
+                 limit :limit)
+            ) m
+            join users u on u.id = m.id
+            group by u.id
+            order by min(m.field),
+                     greatest(similarity(lower(u.first_name || ' ' || u.last_name), :query),
+                              similarity(lower(u.last_name), :query),
+                              similarity(lower(u.email), :query)) desc,
+                     u.id
+            limit :limit
+            """, nativeQuery = true)
+    List<User> searchByPrefix(String query, String prefix, int limit);
+
+    // A single array parameter keeps one statement shape for any number of ids, unlike an expanded IN list
+    @Query(value = "select * from users where id = any(:ids)", nativeQuery = true)
+    List<User> findAllByIdArray(Long[] ids);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int removeById(Long id);
+
+    @Modifying
+    @Query("delete from User u where u.id = :id and u.version = :version")
+    int removeByIdAndVersion(Long id, Long version);
 }
@@ -0,0 +1,177 @@
+package org.example.restapp.search;
+
+import org.example.restapp.event.UserChangedEvent;
+import org.example.restapp.model.User;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Same matching and ranking as {@link PostgresUserSearchIndex}, kept in sorted sets per searchable field.
+ * Used where PostgreSQL is not available, e.g. the H2 load-test profile. It is filled at startup, reloaded
+ * after bulk seeding, and otherwise follows committed {@link UserChangedEvent}s.
+ */
+public class InMemoryUserSearchIndex implements UserSearchIndex {
+
+    private static final int FULL_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int EMAIL = 2;
+    private static final int FIELDS = 3;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final List<NavigableSet<Key>> fields = List.of(
+            new ConcurrentSkipListSet<>(), new ConcurrentSkipListSet<>(), new ConcurrentSkipListSet<>());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.user() == null) {
+            remove(event.id());
+        } else {
+            index(event.user());
+        }
+    }
+
+    public synchronized void index(User user) {
+        remove(user.getId());
+        User copy = User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .birthDate(user.getBirthDate())
+                .address(user.getAddress())
+                .phone(user.getPhone())
+                .version(user.getVersion())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+        users.put(copy.getId(), copy);
+        for (int field = 0; field < FIELDS; field++) {
+            String text = text(copy, field);
+            if (text != null) {
+                fields.get(field).add(new Key(text, copy.getId()));
+            }
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        User previous = users.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            String text = text(previous, field);
+            if (text != null) {
+                fields.get(field).remove(new Key(text, id));
+            }
+        }
+    }
+
+    @Override
+    public List<User> search(String query, int limit) {
+        // Like the SQL version: up to limit candidates per field, deduplicated on the best (lowest) field
+        Map<Long, Integer> candidates = new LinkedHashMap<>();
+        for (int field = 0; field < FIELDS; field++) {
+            int taken = 0;
+            for (Key key : fields.get(field).tailSet(new Key(query, Long.MIN_VALUE))) {
+                if (!key.text().startsWith(query) || taken++ == limit) {
+                    break;
+                }
+                candidates.putIfAbsent(key.id(), field);
+            }
+        }
+
+        Set<String> queryTrigrams = trigrams(query);
+        List<Ranked> ranked = new ArrayList<>(candidates.size());
+        candidates.forEach((id, field) -> {
+            User user = users.get(id);
+            if (user != null) {
+                ranked.add(new Ranked(user, field, similarity(queryTrigrams, user)));
+            }
+        });
+        return ranked.stream()
+                .sorted(Comparator.comparingInt(Ranked::field)
+                        .thenComparing(Comparator.comparingDouble(Ranked::similarity).reversed())
+                        .thenComparing(r -> r.user().getId()))
+                .limit(limit)
+                .map(Ranked::user)
+                .toList();
+    }
+
+    private static String text(User user, int field) {
+        return switch (field) {
+            case FULL_NAME -> user.getFirstName() == null || user.getLastName() == null
+                    ? null
+                    : lower(user.getFirstName() + " " + user.getLastName());
+            case LAST_NAME -> lower(user.getLastName());
+            case EMAIL -> lower(user.getEmail());
+            default -> throw new IllegalArgumentException("Unknown field " + field);
+        };
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static double similarity(Set<String> queryTrigrams, User user) {
+        double best = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            String text = text(user, field);
+            if (text != null) {
+                best = Math.max(best, similarity(queryTrigrams, trigrams(text)));
+            }
+        }
+        return best;
+    }
+
+    // pg_trgm similarity(): shared trigrams over all distinct trigrams of both strings
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    // pg_trgm splits on non-alphanumerics and pads every word with two spaces in front and one behind
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    // Ordered by text, then id, like the "C" collation indexes
+    private record Key(String text, long id) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byText = text.compareTo(other.text);
+            return byText != 0 ? byText : Long.compare(id, other.id);
+        }
+    }
+
+    private record Ranked(User user, int field, double similarity) {
+    }
+}
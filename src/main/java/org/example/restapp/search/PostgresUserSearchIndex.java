@@ -0,0 +1,22 @@
+package org.example.restapp.search;
+
+import lombok.RequiredArgsConstructor;
+import org.example.restapp.model.User;
+import org.example.restapp.repository.UserRepository;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PostgresUserSearchIndex implements UserSearchIndex {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public List<User> search(String query, int limit) {
+        return userRepository.searchByPrefix(query, escapeLike(query) + "%", limit);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
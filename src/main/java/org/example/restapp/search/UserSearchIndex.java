@@ -0,0 +1,20 @@
+package org.example.restapp.search;
+
+import org.example.restapp.model.User;
+
+import java.util.List;
+
+/**
+ * Type-ahead lookup over user names and email. A user matches when the query is a prefix of
+ * "firstName lastName", of lastName or of email (case-insensitive). Matches on the full name rank before
+ * last name matches, which rank before email matches; within a group users are ordered by the best pg_trgm
+ * style trigram similarity between the query and those fields, then by id.
+ */
+public interface UserSearchIndex {
+
+    /**
+     * @param query lower-case query
+     * @param limit maximum number of users to return
+     */
+    List<User> search(String query, int limit);
+}
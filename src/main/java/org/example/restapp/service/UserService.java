@@ -1,18 +1,30 @@
 package org.example.restapp.service;
 
+import org.example.restapp.dto.UserBatchResult;
+import org.example.restapp.dto.UserLookup;
 import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserSlice;
 import org.example.restapp.model.User;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface UserService {
     User createUser(UserRequest request);
+    List<UserBatchResult> createUsers(List<UserRequest> requests);
     User findById(Long id);
-    User updateUser(Long id, UserRequest request);
-    User partialUpdateUser(Long id, UserRequest request);
-    void deleteUserById(Long id);
+    UserLookup findByIds(List<Long> ids);
+    User updateUser(Long id, UserRequest request, Long expectedVersion);
+    User partialUpdateUser(Long id, UserRequest request, Long expectedVersion);
+    void deleteUserById(Long id, Long expectedVersion);
     List<User> findAll(Pageable pageable, LocalDate from, LocalDate to);
+    List<Map<String, Object>> findAllFields(Pageable pageable, LocalDate from, LocalDate to, List<String> fields);
+    UserSlice findAllAfter(String after, int size, LocalDate from, LocalDate to);
+    List<User> searchUsers(String query, int limit);
+    void exportUsers(LocalDate from, LocalDate to, OutputStream out) throws IOException;
 
 }
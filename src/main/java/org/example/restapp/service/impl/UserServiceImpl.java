@@ -1,36 +1,219 @@
 package org.example.restapp.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.example.restapp.concurrent.SingleFlight;
+import org.example.restapp.config.CacheConfig;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.example.restapp.dto.UserBatchResult;
+import org.example.restapp.dto.UserCursor;
+import org.example.restapp.dto.UserLookup;
 import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserSlice;
+import org.example.restapp.event.UserChangedEvent;
+import org.example.restapp.exception.InvalidRequestException;
 import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
 import org.example.restapp.model.User;
 import org.example.restapp.repository.UserRepository;
+import org.example.restapp.search.UserSearchIndex;
 import org.example.restapp.service.UserService;
+import org.example.restapp.validation.UserValidationRules;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("user.service")
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "id", "email", "firstName", "lastName", "birthDate", "address", "phone", "version", "updatedAt");
+
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSearchIndex userSearchIndex;
+
+    // Concurrent identical reads share one query. The reads run with SUPPORTS, so callers waiting on another
+    // thread's query do not hold a transaction, and a pooled connection, while they wait. With open-in-view off,
+    // the shared entities are detached once the leader's repository call returns
+    private final SingleFlight<Long, User> findByIdFlights = new SingleFlight<>();
+    private final SingleFlight<ListQuery, List<User>> findAllFlights = new SingleFlight<>();
 
     @Value("${user.min-age}")
     private Integer MIN_AGE;
 
+    @Value("${user.batch.max-size}")
+    private int maxBatchSize;
+
+    @Value("${user.batch.chunk-size}")
+    private int batchChunkSize;
+
+    @Value("${user.lookup.max-ids}")
+    private int lookupMaxIds;
+
+    @Value("${user.page.max-size}")
+    private int maxPageSize;
+
+    @Value("${user.search.min-query-length}")
+    private int searchMinQueryLength;
+
+    @Value("${user.search.max-limit}")
+    private int searchMaxLimit;
+
     @Override
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.MISSING_USERS_CACHE, key = "#result.id")
+    )
+    @Transactional
     public User createUser(UserRequest request) {
-        if(request.getBirthDate().isAfter(LocalDate.now().minusYears(MIN_AGE))) {
-            throw new ValidationException("User should be at least " + MIN_AGE + " years old");
+        UserValidationRules.requireMinAge(request.getBirthDate(), MIN_AGE);
+
+        User user = userRepository.save(toUser(request));
+        eventPublisher.publishEvent(UserChangedEvent.saved(user));
+        return user;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MISSING_USERS_CACHE, allEntries = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UserBatchResult> createUsers(List<UserRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new InvalidRequestException("Batch should contain at most " + maxBatchSize + " users");
         }
 
-        User user = User.builder()
+        UserBatchResult[] results = new UserBatchResult[requests.size()];
+        Set<String> batchEmails = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validateForCreate(requests.get(i));
+            if (error == null && !batchEmails.add(requests.get(i).getEmail())) {
+                error = "Duplicate email " + requests.get(i).getEmail() + " in batch";
+            }
+            if (error == null) {
+                accepted.add(i);
+            } else {
+                results[i] = UserBatchResult.failed(i, error);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+            persistChunk(requests, accepted.subList(from, Math.min(from + batchChunkSize, accepted.size())), results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private String validateForCreate(UserRequest request) {
+        if (request == null) {
+            return "User must not be null";
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<UserRequest> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (request.getEmail() == null || request.getFirstName() == null
+                || request.getLastName() == null || request.getBirthDate() == null) {
+            return "email, firstName, lastName and birthDate are required";
+        }
+        try {
+            UserValidationRules.requireMinAge(request.getBirthDate(), MIN_AGE);
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void persistChunk(List<UserRequest> requests, List<Integer> chunk, UserBatchResult[] results) {
+        Set<String> existingEmails = userRepository.findExistingEmails(
+                chunk.stream().map(i -> requests.get(i).getEmail()).toList());
+
+        List<Integer> toInsert = new ArrayList<>(chunk.size());
+        for (Integer i : chunk) {
+            if (existingEmails.contains(requests.get(i).getEmail())) {
+                results[i] = UserBatchResult.failed(i, "User with email " + requests.get(i).getEmail() + " already exists");
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        try {
+            List<User> saved = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.saveAll(toInsert.stream().map(i -> toUser(requests.get(i))).toList());
+                userRepository.flush();
+                users.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.saved(user)));
+                entityManager.clear();
+                return users;
+            });
+            for (int k = 0; k < toInsert.size(); k++) {
+                results[toInsert.get(k)] = UserBatchResult.created(toInsert.get(k), saved.get(k).getId());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent insert won the race for one of the emails, retry row by row to isolate it
+            for (Integer i : toInsert) {
+                try {
+                    User user = transactionTemplate.execute(status -> {
+                        User saved = userRepository.save(toUser(requests.get(i)));
+                        eventPublisher.publishEvent(UserChangedEvent.saved(saved));
+                        return saved;
+                    });
+                    results[i] = UserBatchResult.created(i, user.getId());
+                } catch (DataIntegrityViolationException ex) {
+                    results[i] = UserBatchResult.failed(i, ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private User toUser(UserRequest request) {
+        return User.builder()
                 .email(request.getEmail())
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
@@ -38,19 +221,87 @@ public class UserServiceImpl implements UserService {
                 .address(request.getAddress())
                 .phone(request.getPhone())
                 .build();
-
-        return userRepository.save(user);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public User findById(Long id) {
-        return userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
+        Cache missingUsers = cacheManager.getCache(CacheConfig.MISSING_USERS_CACHE);
+        if (missingUsers.get(id) != null) {
+            throw new UserNotFoundException(id);
+        }
+
+        // Both caches are shared by every client, so they are only filled from the primary; a lagging replica
+        // could otherwise bring back a row that was just deleted or overwritten
+        return findByIdFlights.execute(id, () -> ReplicaRoutingDataSource.onPrimary(() -> userRepository.findById(id))
+                .orElseThrow(() -> {
+                    missingUsers.put(id, Boolean.TRUE);
+                    return new UserNotFoundException(id);
+                }));
+    }
+
+    @Override
+    public UserLookup findByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (Objects.nonNull(id)) {
+                requested.add(id);
+            }
+        }
+        if (requested.size() > lookupMaxIds) {
+            throw new InvalidRequestException("At most " + lookupMaxIds + " ids can be looked up at once");
+        }
+
+        // Same caches as findById, so only ids neither cached nor known to be missing reach the database
+        Cache users = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        Cache missingUsers = cacheManager.getCache(CacheConfig.MISSING_USERS_CACHE);
+        Map<Long, User> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : requested) {
+            User cached = users.get(id, User.class);
+            if (Objects.nonNull(cached)) {
+                found.put(id, cached);
+            } else if (Objects.isNull(missingUsers.get(id))) {
+                uncached.add(id);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            // Filled from the primary, like findById
+            List<User> loaded = ReplicaRoutingDataSource.onPrimary(
+                    () -> userRepository.findAllByIdArray(uncached.toArray(Long[]::new)));
+            for (User user : loaded) {
+                found.put(user.getId(), user);
+                users.put(user.getId(), user);
+            }
+            for (Long id : uncached) {
+                if (!found.containsKey(id)) {
+                    missingUsers.put(id, Boolean.TRUE);
+                }
+            }
+        }
+
+        List<User> ordered = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            User user = found.get(id);
+            if (Objects.nonNull(user)) {
+                ordered.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserLookup(ordered, missing);
     }
 
     @Override
-    public User updateUser(Long id, UserRequest request) {
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional
+    public User updateUser(Long id, UserRequest request, Long expectedVersion) {
         User userToUpdate = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
+                .orElseThrow(() -> new UserNotFoundException(id));
+        requireVersion(userToUpdate, expectedVersion);
 
         userToUpdate.setEmail(request.getEmail());
         userToUpdate.setFirstName(request.getFirstName());
@@ -58,14 +309,19 @@ public class UserServiceImpl implements UserService {
         userToUpdate.setBirthDate(request.getBirthDate());
         userToUpdate.setAddress(request.getAddress());
         userToUpdate.setPhone(request.getPhone());
+        eventPublisher.publishEvent(UserChangedEvent.saved(userToUpdate));
 
-        return userRepository.save(userToUpdate);
+        // Managed entity, dirty checking flushes the UPDATE on commit without a merge
+        return userToUpdate;
     }
 
     @Override
-    public User partialUpdateUser(Long id, UserRequest request) {
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional
+    public User partialUpdateUser(Long id, UserRequest request, Long expectedVersion) {
         User userToUpdate = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
+                .orElseThrow(() -> new UserNotFoundException(id));
+        requireVersion(userToUpdate, expectedVersion);
 
         if (request.getEmail() != null) userToUpdate.setEmail(request.getEmail());
         if (request.getFirstName() != null) userToUpdate.setFirstName(request.getFirstName());
@@ -73,27 +329,169 @@ public class UserServiceImpl implements UserService {
         if (request.getBirthDate() != null) userToUpdate.setBirthDate(request.getBirthDate());
         if (request.getAddress() != null) userToUpdate.setAddress(request.getAddress());
         if (request.getPhone() != null) userToUpdate.setPhone(request.getPhone());
+        eventPublisher.publishEvent(UserChangedEvent.saved(userToUpdate));
 
-        return userRepository.save(userToUpdate);
+        return userToUpdate;
     }
 
     @Override
-    public void deleteUserById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User with id " + id + " not found");
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional
+    public void deleteUserById(Long id, Long expectedVersion) {
+        int deleted = Objects.isNull(expectedVersion)
+                ? userRepository.removeById(id)
+                : userRepository.removeByIdAndVersion(id, expectedVersion);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+            return;
+        }
+
+        if (Objects.nonNull(expectedVersion) && userRepository.existsById(id)) {
+            throw new UserVersionMismatchException(id);
+        }
+        throw new UserNotFoundException(id);
+    }
+
+    private void requireVersion(User user, Long expectedVersion) {
+        if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(user.getVersion())) {
+            throw new UserVersionMismatchException(user.getId());
         }
-        userRepository.deleteById(id);
     }
 
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<User> findAll(Pageable pageable, LocalDate from, LocalDate to) {
+        UserValidationRules.requireMaxPageSize(pageable.getPageSize(), maxPageSize);
+        if(Objects.isNull(from) || Objects.isNull(to)) {
+            Pageable sorted = withDefaultSort(pageable, Sort.by("id"));
+            return findAllFlights.execute(new ListQuery(sorted, null, null, ReplicaRoutingDataSource.currentRoute()),
+                    () -> userRepository.findAll(sorted).getContent());
+        }
+
+        UserValidationRules.requireValidDateRange(from, to);
+        Pageable sorted = withDefaultSort(pageable, Sort.by("birthDate", "id"));
+        return findAllFlights.execute(new ListQuery(sorted, from, to, ReplicaRoutingDataSource.currentRoute()),
+                () -> userRepository.findAllByBirthDateBetween(sorted, from, to).getContent());
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllFields(Pageable pageable, LocalDate from, LocalDate to, List<String> fields) {
+        UserValidationRules.requireMaxPageSize(pageable.getPageSize(), maxPageSize);
+        List<String> selected = selectFields(fields);
+        if(Objects.isNull(from) || Objects.isNull(to)) {
+            return userRepository.findFields(selected, null, null, withDefaultSort(pageable, Sort.by("id")));
+        }
+
+        UserValidationRules.requireValidDateRange(from, to);
+        return userRepository.findFields(selected, from, to, withDefaultSort(pageable, Sort.by("birthDate", "id")));
+    }
+
+    // id always comes first so clients can still address the rows they list
+    private static List<String> selectFields(List<String> fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE_FIELDS.contains(name)) {
+                throw new InvalidRequestException("Unknown field " + name);
+            }
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+
+    // Unsorted offset pages come back in whatever order the plan produces, so rows can repeat or go missing
+    // between pages; these orders match the primary key and the (birth_date, id) index
+    private static Pageable withDefaultSort(Pageable pageable, Sort sort) {
+        if (pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    @Override
+    public UserSlice findAllAfter(String after, int size, LocalDate from, LocalDate to) {
+        UserValidationRules.requireMaxPageSize(size, maxPageSize);
+        UserCursor cursor = UserCursor.decode(after);
+
         if(Objects.isNull(from) || Objects.isNull(to)) {
-            return userRepository.findAll(pageable).getContent();
+            Long afterId = cursor == null ? Long.MIN_VALUE : cursor.id();
+            Slice<User> slice = userRepository.findAllByIdGreaterThan(afterId, PageRequest.of(0, size, Sort.by("id")));
+            return toUserSlice(slice, false);
         }
 
-        if (from.isAfter(to) || from.isAfter(LocalDate.now()) || to.isBefore(LocalDate.now())) {
-            throw new ValidationException("Invalid date range");
+        UserValidationRules.requireValidDateRange(from, to);
+        if (cursor != null && cursor.birthDate() == null) {
+            throw new InvalidRequestException("Cursor does not match the requested date range");
         }
-        return userRepository.findAllByBirthDateBetween(pageable, from, to).getContent();
+        LocalDate afterBirthDate = cursor == null ? from : cursor.birthDate();
+        Long afterId = cursor == null ? Long.MIN_VALUE : cursor.id();
+        Slice<User> slice = userRepository.findAllByBirthDateBetweenAfter(from, to, afterBirthDate, afterId,
+                PageRequest.of(0, size, Sort.by("birthDate", "id")));
+        return toUserSlice(slice, true);
+    }
+
+    private UserSlice toUserSlice(Slice<User> slice, boolean keyedOnBirthDate) {
+        List<User> users = slice.getContent();
+        if (!slice.hasNext() || users.isEmpty()) {
+            return new UserSlice(users, null);
+        }
+        User last = users.getLast();
+        UserCursor next = new UserCursor(keyedOnBirthDate ? last.getBirthDate() : null, last.getId());
+        return new UserSlice(users, next.encode());
+    }
+
+    @Override
+    public List<User> searchUsers(String query, int limit) {
+        String normalized = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (normalized.length() < searchMinQueryLength) {
+            throw new InvalidRequestException("Search query should have at least " + searchMinQueryLength + " characters");
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit should be positive");
+        }
+
+        return userSearchIndex.search(normalized, Math.min(limit, searchMaxLimit));
+    }
+
+    @Override
+    public void exportUsers(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        long exported = 0;
+        try (Stream<User> users = streamUsers(from, to);
+             SequenceWriter sequence = writer.writeValues(out)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    sequence.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        if (exported > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private Stream<User> streamUsers(LocalDate from, LocalDate to) {
+        if(Objects.isNull(from) || Objects.isNull(to)) {
+            return userRepository.streamAll();
+        }
+
+        UserValidationRules.requireValidDateRange(from, to);
+        return userRepository.streamAllByBirthDateBetween(from, to);
+    }
+
+    // PageRequest has value equality, so equal requests map to the same in-flight query. The route is part of
+    // the key, so a client pinned to the primary never joins a query that went to a lagging replica
+    private record ListQuery(Pageable pageable, LocalDate from, LocalDate to, ReplicaRoutingDataSource.Route route) {
     }
 }
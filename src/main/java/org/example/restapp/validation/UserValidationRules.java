@@ -0,0 +1,29 @@
+package org.example.restapp.validation;
+
+import org.example.restapp.exception.InvalidRequestException;
+
+import java.time.LocalDate;
+
+public final class UserValidationRules {
+
+    private UserValidationRules() {
+    }
+
+    public static void requireValidDateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || from.isAfter(LocalDate.now()) || to.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("Invalid date range");
+        }
+    }
+
+    public static void requireMaxPageSize(int size, int maxSize) {
+        if (size > maxSize) {
+            throw new InvalidRequestException("Page size should be at most " + maxSize);
+        }
+    }
+
+    public static void requireMinAge(LocalDate birthDate, int minAge) {
+        if (birthDate.isAfter(LocalDate.now().minusYears(minAge))) {
+            throw new InvalidRequestException("User should be at least " + minAge + " years old");
+        }
+    }
+}
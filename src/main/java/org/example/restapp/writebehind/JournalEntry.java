@@ -0,0 +1,38 @@
+package org.example.restapp.writebehind;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.restapp.dto.UserRequest;
+
+import java.util.List;
+
+/**
+ * One line of the {@link UpdateJournal}. An {@code UPDATE} line carries an accepted update (or, after
+ * compaction, several already coalesced ones); an {@code ACK} line marks tracking ids whose outcome is final.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record JournalEntry(
+        Type type,
+        List<String> trackingIds,
+        Long userId,
+        Boolean partial,
+        Long expectedVersion,
+        UserRequest request
+) {
+
+    enum Type {
+        UPDATE, ACK
+    }
+
+    static JournalEntry update(PendingUpdate update) {
+        return new JournalEntry(Type.UPDATE, update.trackingIds(), update.userId(), update.partial(),
+                update.expectedVersion(), update.request());
+    }
+
+    static JournalEntry ack(List<String> trackingIds) {
+        return new JournalEntry(Type.ACK, trackingIds, null, null, null, null);
+    }
+
+    PendingUpdate toUpdate() {
+        return new PendingUpdate(userId, trackingIds, request, partial, expectedVersion);
+    }
+}
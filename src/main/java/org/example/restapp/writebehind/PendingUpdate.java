@@ -0,0 +1,52 @@
+package org.example.restapp.writebehind;
+
+import org.example.restapp.dto.UserRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The updates accepted for one user that have not been written yet, collapsed into a single request.
+ * A full update replaces everything queued before it; a partial one only overrides the fields it sets.
+ * Only updates carrying the same If-Match version (or none) are collapsed, so every version is still checked
+ * against the row it was sent for.
+ */
+record PendingUpdate(
+        Long userId,
+        List<String> trackingIds,
+        UserRequest request,
+        boolean partial,
+        Long expectedVersion
+) {
+
+    static PendingUpdate of(String trackingId, Long userId, UserRequest request, boolean partial, Long expectedVersion) {
+        return new PendingUpdate(userId, List.of(trackingId), copy(request), partial, expectedVersion);
+    }
+
+    boolean canMerge(PendingUpdate next) {
+        return Objects.equals(expectedVersion, next.expectedVersion);
+    }
+
+    PendingUpdate merge(PendingUpdate next) {
+        List<String> merged = new ArrayList<>(trackingIds);
+        merged.addAll(next.trackingIds);
+        if (!next.partial) {
+            return new PendingUpdate(userId, merged, copy(next.request), false, expectedVersion);
+        }
+        UserRequest combined = copy(request);
+        UserRequest changes = next.request;
+        if (changes.getEmail() != null) combined.setEmail(changes.getEmail());
+        if (changes.getFirstName() != null) combined.setFirstName(changes.getFirstName());
+        if (changes.getLastName() != null) combined.setLastName(changes.getLastName());
+        if (changes.getBirthDate() != null) combined.setBirthDate(changes.getBirthDate());
+        if (changes.getAddress() != null) combined.setAddress(changes.getAddress());
+        if (changes.getPhone() != null) combined.setPhone(changes.getPhone());
+        return new PendingUpdate(userId, merged, combined, partial, expectedVersion);
+    }
+
+    private static UserRequest copy(UserRequest request) {
+        return new UserRequest(request.getEmail(), request.getFirstName(), request.getLastName(),
+                request.getBirthDate(), request.getAddress(), request.getPhone());
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.restapp.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only file of JSON lines backing the write-behind queue. Appends are cheap writes; {@link #sync(long)}
+ * makes them durable with one {@code fsync} shared by every append that happened before it (group commit),
+ * so concurrent requests do not each pay for their own flush to disk.
+ */
+@Slf4j
+class UpdateJournal implements Closeable {
+
+    private final Path path;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+
+    private FileChannel channel;
+    // Positions are logical and keep growing across rewrites, so a position handed out before a rewrite is still
+    // covered by it: offset is the logical position at which the current file starts
+    private long offset;
+    private long written;
+
+    UpdateJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.writer = objectMapper.writerFor(JournalEntry.class);
+        this.reader = objectMapper.readerFor(JournalEntry.class);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    /**
+     * Writes the entry and returns the journal position to pass to {@link #sync(long)}.
+     */
+    synchronized long append(JournalEntry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap(line(entry));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        written = offset + channel.size();
+        return written;
+    }
+
+    /**
+     * Returns once everything up to {@code position} is on disk.
+     */
+    void sync(long position) throws IOException {
+        if (synced.get() >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get() >= position) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = written;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Replaced by a concurrent rewrite, which made everything written so far durable
+                if (synced.get() < position) {
+                    throw e;
+                }
+                return;
+            }
+            synced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    /**
+     * Reads every complete entry. A torn last line from a crash in the middle of a write is skipped.
+     */
+    synchronized List<JournalEntry> readAll() throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        List<JournalEntry> entries = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                entries.add(reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                if (i < lines.size() - 1) {
+                    throw e;
+                }
+                log.warn("Ignoring incomplete last line of update journal {}", path);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Atomically replaces the journal with the given entries, which become durable before this returns.
+     */
+    synchronized void rewrite(Collection<JournalEntry> entries) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            for (JournalEntry entry : entries) {
+                out.write(line(entry));
+            }
+        }
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        offset = written;
+        open();
+    }
+
+    synchronized long size() {
+        return written - offset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        written = offset + channel.size();
+        synced.accumulateAndGet(written, Math::max);
+    }
+
+    private byte[] line(JournalEntry entry) throws JsonProcessingException {
+        byte[] json = writer.writeValueAsBytes(entry);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+}
@@ -0,0 +1,296 @@
+package org.example.restapp.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.restapp.config.CacheConfig;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserUpdateStatus;
+import org.example.restapp.exception.UpdateNotFoundException;
+import org.example.restapp.exception.WriteBehindQueueFullException;
+import org.example.restapp.model.User;
+import org.example.restapp.service.UserService;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts user updates without touching the database and writes them later in batches. Updates for the same
+ * user are coalesced while they wait, so a burst of PATCHes becomes a single UPDATE; an update with a different
+ * If-Match version is queued behind them instead and written in a later batch. Every accepted update is
+ * appended to an {@link UpdateJournal} and synced before the caller gets its tracking id; outcomes are
+ * acknowledged in the journal after each batch, and whatever was not acknowledged is queued again on startup.
+ * <p>
+ * Delivery is at-least-once: a crash between a batch commit and its acknowledgement replays that batch, which
+ * rewrites the same values but fails any update that carried an If-Match version. Reads keep going to the
+ * database, so a user only reflects an accepted update once its status is {@code APPLIED}.
+ */
+@Slf4j
+public class WriteBehindQueue implements Closeable {
+
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final Settings settings;
+    private final UpdateJournal journal;
+    private final Cache<String, UserUpdateStatus> statuses;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "write-behind-flusher"));
+
+    // Guards pending and keeps journal appends in the same order as merges
+    private final Object lock = new Object();
+    // Per user, the updates in submission order; only the last one still takes merges
+    private final Map<Long, Deque<PendingUpdate>> pending = new LinkedHashMap<>();
+
+    public WriteBehindQueue(UserService userService, TransactionTemplate transactionTemplate,
+                            CacheManager cacheManager, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            Settings settings) throws IOException {
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.journal = new UpdateJournal(settings.journal(), objectMapper);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(settings.statusTtl())
+                .build();
+        meterRegistry.gauge("user.writebehind.pending", this, WriteBehindQueue::pendingUsers);
+        replay();
+    }
+
+    public void start() {
+        long interval = settings.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public UserUpdateStatus submit(Long userId, UserRequest request, boolean partial, Long expectedVersion) {
+        String trackingId = UUID.randomUUID().toString();
+        PendingUpdate update = PendingUpdate.of(trackingId, userId, request, partial, expectedVersion);
+        UserUpdateStatus status = UserUpdateStatus.pending(trackingId, userId);
+        try {
+            long position;
+            synchronized (lock) {
+                if (!pending.containsKey(userId) && pending.size() >= settings.capacity()) {
+                    throw new WriteBehindQueueFullException(settings.capacity());
+                }
+                position = journal.append(JournalEntry.update(update));
+                enqueue(update);
+                statuses.put(trackingId, status);
+            }
+            journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal update for user " + userId, e);
+        }
+        return status;
+    }
+
+    public UserUpdateStatus getStatus(String trackingId) {
+        UserUpdateStatus status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new UpdateNotFoundException(trackingId);
+        }
+        return status;
+    }
+
+    public int pendingUsers() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Writes one batch and returns the number of users it covered.
+     */
+    public synchronized int flush() {
+        List<PendingUpdate> batch = drain();
+        try {
+            if (!batch.isEmpty()) {
+                List<UserUpdateStatus> outcomes = write(batch);
+                outcomes.forEach(outcome -> statuses.put(outcome.trackingId(), outcome));
+                List<String> trackingIds = outcomes.stream().map(UserUpdateStatus::trackingId).toList();
+                journal.sync(journal.append(JournalEntry.ack(trackingIds)));
+            }
+            compact();
+        } catch (IOException e) {
+            // Not acknowledged, so the batch is replayed on the next start
+            throw new UncheckedIOException("Could not acknowledge update batch", e);
+        }
+        return batch.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Write-behind flusher did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+        journal.close();
+    }
+
+    private void flushAll() {
+        try {
+            while (flush() == settings.batchSize()) {
+                // keep draining while full batches are waiting
+            }
+        } catch (RuntimeException e) {
+            log.error("Flushing queued user updates failed", e);
+        }
+    }
+
+    private List<PendingUpdate> drain() {
+        synchronized (lock) {
+            List<PendingUpdate> batch = new ArrayList<>(Math.min(pending.size(), settings.batchSize()));
+            Iterator<Deque<PendingUpdate>> iterator = pending.values().iterator();
+            // At most one update per user, so a later If-Match is checked against the version the earlier one left
+            while (iterator.hasNext() && batch.size() < settings.batchSize()) {
+                Deque<PendingUpdate> updates = iterator.next();
+                batch.add(updates.pollFirst());
+                if (updates.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+            return batch;
+        }
+    }
+
+    // Callers hold lock
+    private void enqueue(PendingUpdate update) {
+        Deque<PendingUpdate> updates = pending.computeIfAbsent(update.userId(), userId -> new ArrayDeque<>());
+        PendingUpdate last = updates.peekLast();
+        if (last != null && last.canMerge(update)) {
+            updates.pollLast();
+            updates.addLast(last.merge(update));
+        } else {
+            updates.addLast(update);
+        }
+    }
+
+    private List<JournalEntry> pendingEntries() {
+        return pending.values().stream().flatMap(Deque::stream).map(JournalEntry::update).toList();
+    }
+
+    private List<UserUpdateStatus> write(List<PendingUpdate> batch) {
+        List<UserUpdateStatus> outcomes = new ArrayList<>();
+        try {
+            // One transaction for the batch, so the UPDATEs go out as a JDBC batch on commit
+            List<User> users = transactionTemplate.execute(status -> batch.stream().map(this::apply).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                applied(batch.get(i), users.get(i), outcomes);
+            }
+            count("applied", batch.size());
+            return outcomes;
+        } catch (RuntimeException e) {
+            log.debug("Update batch of {} users failed, retrying one by one", batch.size(), e);
+        }
+
+        // The cache was updated inside the rolled-back transaction
+        org.springframework.cache.Cache users = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        batch.forEach(update -> users.evict(update.userId()));
+        for (PendingUpdate update : batch) {
+            try {
+                applied(update, apply(update), outcomes);
+                count("applied", 1);
+            } catch (RuntimeException e) {
+                update.trackingIds().forEach(trackingId ->
+                        outcomes.add(UserUpdateStatus.failed(trackingId, update.userId(), e.getMessage())));
+                count("failed", 1);
+            }
+        }
+        return outcomes;
+    }
+
+    private User apply(PendingUpdate update) {
+        return update.partial()
+                ? userService.partialUpdateUser(update.userId(), update.request(), update.expectedVersion())
+                : userService.updateUser(update.userId(), update.request(), update.expectedVersion());
+    }
+
+    private static void applied(PendingUpdate update, User user, List<UserUpdateStatus> outcomes) {
+        update.trackingIds().forEach(trackingId ->
+                outcomes.add(UserUpdateStatus.applied(trackingId, update.userId(), user.getVersion())));
+    }
+
+    private void count(String outcome, int users) {
+        meterRegistry.counter("user.writebehind.flushed", "outcome", outcome).increment(users);
+    }
+
+    // Drops acknowledged entries once nothing is waiting, or once the file grows past its limit under load
+    private void compact() throws IOException {
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                if (journal.size() > 0) {
+                    journal.rewrite(List.of());
+                }
+            } else if (journal.size() > settings.maxJournalBytes()) {
+                journal.rewrite(pendingEntries());
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        // Keyed by the first tracking id of each entry; an acknowledgement always covers a whole entry
+        Map<String, PendingUpdate> unacknowledged = new LinkedHashMap<>();
+        Map<String, String> entryByTrackingId = new LinkedHashMap<>();
+        for (JournalEntry entry : journal.readAll()) {
+            if (entry.type() == JournalEntry.Type.UPDATE) {
+                PendingUpdate update = entry.toUpdate();
+                String key = update.trackingIds().get(0);
+                unacknowledged.put(key, update);
+                update.trackingIds().forEach(trackingId -> entryByTrackingId.put(trackingId, key));
+            } else {
+                for (String trackingId : entry.trackingIds()) {
+                    String key = entryByTrackingId.remove(trackingId);
+                    if (key != null) {
+                        unacknowledged.remove(key);
+                    }
+                }
+            }
+        }
+
+        synchronized (lock) {
+            for (PendingUpdate update : unacknowledged.values()) {
+                enqueue(update);
+                update.trackingIds().forEach(trackingId ->
+                        statuses.put(trackingId, UserUpdateStatus.pending(trackingId, update.userId())));
+            }
+            journal.rewrite(pendingEntries());
+            if (!pending.isEmpty()) {
+                log.info("Replayed {} journaled updates for {} users", unacknowledged.size(), pending.size());
+            }
+        }
+    }
+
+    public record Settings(
+            Path journal,
+            int capacity,
+            int batchSize,
+            Duration flushInterval,
+            Duration statusTtl,
+            long maxJournalBytes
+    ) {
+    }
+}
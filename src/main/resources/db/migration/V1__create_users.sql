@@ -0,0 +1,19 @@
+-- Increment must match allocationSize of the users_seq generator on User (pooled-lo optimizer)
+create sequence users_seq start with 1 increment by 50;
+
+create table users (
+    id         bigint                      not null,
+    email      varchar(100)                not null,
+    first_name varchar(100)                not null,
+    last_name  varchar(100)                not null,
+    birth_date date                        not null,
+    address    varchar(100),
+    phone      varchar(100),
+    version    bigint                      not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint users_pkey primary key (id),
+    constraint users_email_key unique (email)
+);
+
+-- Backs birth date range filters together with their (birth_date, id) ordering, for offset and keyset pages
+create index users_birth_date_id_idx on users (birth_date, id);
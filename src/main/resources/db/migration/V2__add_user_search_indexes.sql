@@ -0,0 +1,9 @@
+-- similarity() ranks the search candidates
+create extension if not exists pg_trgm;
+
+-- Prefix lookups for GET /users/search. With the "C" collation LIKE 'abc%' becomes an index range scan that
+-- returns rows already in ORDER BY order, so every branch of the search query stops after LIMIT rows.
+-- The full name index also serves first name prefixes.
+create index users_full_name_prefix_idx on users ((lower(first_name || ' ' || last_name) collate "C"), id);
+create index users_last_name_prefix_idx on users ((lower(last_name) collate "C"), id);
+create index users_email_prefix_idx on users ((lower(email) collate "C"), id);
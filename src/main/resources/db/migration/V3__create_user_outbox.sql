@@ -0,0 +1,22 @@
+-- Change events, written in the same transaction as the user mutation they describe. The relay gives each
+-- committed row the next position (the offset consumers resume from) and then publishes it
+create table user_outbox (
+    id           bigint generated by default as identity,
+    user_id      bigint                      not null,
+    type         varchar(16)                 not null,
+    payload      text,
+    created_at   timestamp(6) with time zone not null,
+    position     bigint,
+    published_at timestamp(6) with time zone,
+    constraint user_outbox_pkey primary key (id),
+    constraint user_outbox_position_key unique (position)
+);
+
+-- Rows still waiting for a position, in commit-safe id order
+create index user_outbox_unsequenced_idx on user_outbox (id) where position is null;
+
+-- Rows that have a position but have not reached the sinks yet
+create index user_outbox_unpublished_idx on user_outbox (position) where published_at is null and position is not null;
+
+-- Retention cleanup
+create index user_outbox_created_at_idx on user_outbox (created_at);
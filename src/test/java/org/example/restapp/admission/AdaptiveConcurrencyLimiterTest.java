@@ -0,0 +1,74 @@
+package org.example.restapp.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_whenLimitReached_thenShedsUntilAPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Duration.ofSeconds(10));
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        assertNull(limiter.tryAcquire());
+
+        first.release(false);
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void release_whenCallsAreFastAndLimitIsInUse_thenRaisesLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Duration.ofSeconds(10));
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        first.release(false);
+        second.release(false);
+
+        assertEquals(4, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void release_whenSeveralCallsFailUnderSameLimit_thenLowersLimitOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, Duration.ofSeconds(10), 0.5);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+
+        permits.forEach(permit -> permit.release(true));
+
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    void release_whenCallIsSlowerThanThreshold_thenLowersLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Duration.ZERO);
+
+        limiter.tryAcquire().release(false);
+
+        assertEquals(1, limiter.limit());
+    }
+
+    @Test
+    void acquire_whenLimitReached_thenStillAdmitsAndCounts() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Duration.ofSeconds(10));
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        assertNotNull(limiter.acquire());
+        assertEquals(3, limiter.inFlight());
+        assertNull(limiter.tryAcquire());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter(2, 1, 10, latencyThreshold, 0.5);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.restapp.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final RateLimiter limiter = new RateLimiter(10, 5, 100, nanos::get);
+
+    @Test
+    void tryAcquire_whenBurstUsedUp_thenRejectsUntilATokenRefills() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("client", 1));
+        }
+
+        assertEquals(Duration.ofMillis(100), limiter.tryAcquire("client", 1));
+
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+        assertEquals(Duration.ZERO, limiter.tryAcquire("client", 1));
+    }
+
+    @Test
+    void tryAcquire_whenCostExceedsRemainingTokens_thenTakesNothing() {
+        assertEquals(Duration.ZERO, limiter.tryAcquire("client", 3));
+
+        assertEquals(Duration.ofMillis(100), limiter.tryAcquire("client", 3));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("client", 2));
+    }
+
+    @Test
+    void tryAcquire_whenCostExceedsBurst_thenNeedsAFullBucket() {
+        assertEquals(Duration.ZERO, limiter.tryAcquire("client", 50));
+        assertEquals(Duration.ofMillis(500), limiter.tryAcquire("client", 50));
+    }
+
+    @Test
+    void tryAcquire_whenOneClientIsLimited_thenOthersAreNot() {
+        limiter.tryAcquire("noisy", 5);
+
+        assertNotEquals(Duration.ZERO, limiter.tryAcquire("noisy", 1));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("quiet", 1));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.restapp.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.example.restapp.event.UserChangedEvent;
+import org.example.restapp.event.UsersSeededEvent;
+import org.example.restapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserListResponseCacheTest {
+
+    private static final UserListResponseCache.Key FIRST_PAGE =
+            UserListResponseCache.Key.of(0, 10, null, null, MediaType.APPLICATION_JSON);
+
+    private final UserListResponseCache cache = new UserListResponseCache(
+            Map.of(MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().build(),
+                    MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build()),
+            new SimpleMeterRegistry(), Duration.ofMinutes(1), 1024 * 1024);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_whenPageCached_thenServesSameBytesWithoutLoading() {
+        UserListResponseCache.EncodedPage first = cache.get(FIRST_PAGE, this::load);
+        UserListResponseCache.EncodedPage second = cache.get(FIRST_PAGE, this::load);
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertTrue(new String(first.body(), StandardCharsets.UTF_8).startsWith("[{\"id\":1,"));
+    }
+
+    @Test
+    void get_whenUserChangedSinceCached_thenLoadsAgain() {
+        cache.get(FIRST_PAGE, this::load);
+
+        cache.onUserChanged(UserChangedEvent.deleted(1L));
+        cache.get(FIRST_PAGE, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenUsersSeededSinceCached_thenLoadsAgain() {
+        cache.get(FIRST_PAGE, this::load);
+
+        cache.onUsersSeeded(new UsersSeededEvent(1000));
+        cache.get(FIRST_PAGE, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenUserChangesWhileLoading_thenLoadedPageIsNotServedAgain() {
+        cache.get(FIRST_PAGE, () -> {
+            cache.onUserChanged(UserChangedEvent.deleted(1L));
+            return load();
+        });
+
+        cache.get(FIRST_PAGE, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenPinnedToPrimary_thenNeitherServesNorStoresCachedPage() {
+        cache.get(FIRST_PAGE, this::load);
+
+        ReplicaRoutingDataSource.setPrimaryOnly(true);
+        try {
+            cache.get(FIRST_PAGE, this::load);
+            cache.get(FIRST_PAGE, this::load);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryOnly(false);
+        }
+        cache.get(FIRST_PAGE, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_whenOtherFormatRequested_thenEncodesSeparatelyWithOwnETag() throws Exception {
+        UserListResponseCache.Key cborPage = UserListResponseCache.Key.of(0, 10, null, null, MediaType.APPLICATION_CBOR);
+
+        UserListResponseCache.EncodedPage json = cache.get(FIRST_PAGE, this::load);
+        UserListResponseCache.EncodedPage cbor = cache.get(cborPage, this::load);
+
+        assertEquals(2, loads.get());
+        assertNotEquals(json.eTag(), cbor.eTag());
+        assertEquals("John", Jackson2ObjectMapperBuilder.cbor().build().readTree(cbor.body()).get(0).get("firstName").asText());
+    }
+
+    @Test
+    void keyOf_whenOnlyOneRangeEndGiven_thenIgnoresRange() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+
+        assertEquals(FIRST_PAGE, UserListResponseCache.Key.of(0, 10, from, null, MediaType.APPLICATION_JSON));
+        assertNotEquals(FIRST_PAGE,
+                UserListResponseCache.Key.of(0, 10, from, from.plusYears(1), MediaType.APPLICATION_JSON));
+    }
+
+    private List<User> load() {
+        loads.incrementAndGet();
+        return List.of(User.builder().id(1L).firstName("John").version(1L).build());
+    }
+}
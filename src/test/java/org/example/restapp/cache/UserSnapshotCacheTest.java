@@ -0,0 +1,55 @@
+package org.example.restapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.restapp.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserSnapshotCacheTest {
+
+    private final UserSnapshotCache cache = new UserSnapshotCache("users", Caffeine.newBuilder().build());
+
+    @Test
+    void get_whenReturnedUserIsModified_thenCachedUserIsUnchanged() {
+        cache.put(1L, user());
+
+        cache.get(1L, User.class).setEmail("changed@example.com");
+
+        assertEquals(user(), cache.get(1L, User.class));
+    }
+
+    @Test
+    void put_whenOriginalIsModifiedAfterwards_thenCachedUserIsUnchanged() {
+        User original = user();
+        cache.put(1L, original);
+
+        original.setFirstName("Changed");
+
+        assertEquals("John", cache.get(1L, User.class).getFirstName());
+        assertNotSame(cache.get(1L, User.class), cache.get(1L, User.class));
+    }
+
+    @Test
+    void get_whenLoadedThroughCallable_thenReturnsCopyOfLoadedUser() {
+        User loaded = user();
+
+        User actual = cache.get(1L, () -> loaded);
+
+        assertEquals(loaded, actual);
+        assertNotSame(loaded, actual);
+    }
+
+    private static User user() {
+        return User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .version(3L)
+                .build();
+    }
+}
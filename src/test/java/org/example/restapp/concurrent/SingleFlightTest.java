@@ -0,0 +1,125 @@
+package org.example.restapp.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 200;
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_whenCalledConcurrentlyForSameKey_thenLoadsOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Integer> results = callConcurrently(() -> singleFlight.execute("user:1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 42;
+        }), release);
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS, results.size());
+        assertTrue(results.stream().allMatch(result -> result == 42));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void execute_whenLoaderFails_thenEveryWaitingCallerGetsTheSameException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("database down");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> leader = executor.submit(() -> singleFlight.execute("user:1", () -> {
+                await(release);
+                throw failure;
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            CountDownLatch followerStarted = new CountDownLatch(1);
+            Future<?> follower = executor.submit(() -> {
+                followerStarted.countDown();
+                return singleFlight.execute("user:1", () -> 1);
+            });
+            await(followerStarted);
+            Thread.sleep(200);
+            release.countDown();
+
+            assertSame(failure, assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+            assertSame(failure, assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_whenPreviousCallCompleted_thenLoadsAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("user:1", loads::incrementAndGet);
+        singleFlight.execute("user:1", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void execute_whenKeysDiffer_thenLoadsEachKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger key = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        callConcurrently(() -> singleFlight.execute("user:" + key.incrementAndGet() % 4, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return 1;
+        }), release);
+
+        assertEquals(4, loads.get());
+    }
+
+    // Starts every caller, lets them pile up on the in-flight loads, then releases the loaders
+    private static List<Integer> callConcurrently(Callable<Integer> call, CountDownLatch release)
+            throws Exception {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return call.call();
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+        }
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package org.example.restapp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.restapp.cache.UserListResponseCache;
+import org.example.restapp.config.ContentFormatConfig;
+import org.example.restapp.dto.UserBatchResult;
+import org.example.restapp.dto.UserLookup;
 import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserSlice;
+import org.example.restapp.dto.UserUpdateStatus;
+import org.example.restapp.exception.InvalidRequestException;
+import org.example.restapp.exception.UpdateNotFoundException;
 import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.WriteBehindQueueFullException;
+import org.example.restapp.exception.handler.GlobalExceptionHandler;
 import org.example.restapp.model.User;
+import org.example.restapp.writebehind.WriteBehindQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,8 +42,14 @@ import static org.mockito.Mockito.*;
 
 import org.example.restapp.service.UserService;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @ExtendWith(SpringExtension.class)
 public class UserControllerTest {
@@ -34,13 +59,28 @@ public class UserControllerTest {
     @Mock
     private UserService userServiceMock;
 
+    @Mock
+    private WriteBehindQueue writeBehindQueueMock;
+
+    @Mock
+    private ObjectProvider<WriteBehindQueue> writeBehindQueueProvider;
+
+    @Spy
+    private UserListResponseCache userListResponseCache = new UserListResponseCache(
+            listEncoders(), new SimpleMeterRegistry(), Duration.ofMinutes(1), 1024 * 1024);
+
     @InjectMocks
     private UserController userController;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     public void setUp() {
+        when(writeBehindQueueProvider.getIfAvailable()).thenReturn(writeBehindQueueMock);
+        meterRegistry = new SimpleMeterRegistry();
         mockMvc = MockMvcBuilders
                 .standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
                 .build();
     }
 
@@ -85,6 +125,18 @@ public class UserControllerTest {
         verify(userServiceMock).findById(userId);
     }
 
+    @Test
+    public void getUsersByIds_whenSomeIdsMissing_thenReturnsFoundUsersAndMissingIds() throws Exception {
+        User user = User.builder().id(2L).build();
+
+        when(userServiceMock.findByIds(List.of(2L, 7L))).thenReturn(new UserLookup(List.of(user), List.of(7L)));
+
+        mockMvc.perform(get("/users").param("ids", "2,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
     @Test
     public void getUser_whenUserNotFound_thenThrowsException() throws Exception {
         Long userId = 1L;
@@ -100,13 +152,38 @@ public class UserControllerTest {
         verify(userServiceMock).findById(userId);
     }
 
+    @Test
+    public void getAllUsers_whenValidationFails_thenReturnsBadRequest() throws Exception {
+        when(userServiceMock.findAll(any(PageRequest.class), isNull(), isNull()))
+                .thenThrow(new InvalidRequestException("Page size should be at most 1000"));
+
+        mockMvc.perform(get("/users").param("size", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(HttpStatus.BAD_REQUEST.value()))
+                .andExpect(jsonPath("$.message").value("Page size should be at most 1000"))
+                .andExpect(jsonPath("$.timestamp").isString());
+    }
+
+    @Test
+    public void getUser_whenUserNotFound_thenCountsErrorByExceptionType() throws Exception {
+        when(userServiceMock.findById(1L)).thenThrow(new UserNotFoundException(1L));
+
+        mockMvc.perform(get("/users/{id}", 1L))
+                .andExpect(status().isNotFound());
+
+        assertEquals(1, meterRegistry.get("user.errors")
+                .tag("exception", "UserNotFoundException")
+                .tag("status", "404")
+                .counter().count());
+    }
+
     @Test
     public void updateUser_whenSuccessful_thenReturnsUpdatedUser() throws Exception {
         Long userId = 1L;
         UserRequest updateRequest = new UserRequest();
         User updatedUser = new User();
 
-        when(userServiceMock.updateUser(eq(userId), any(UserRequest.class))).thenReturn(updatedUser);
+        when(userServiceMock.updateUser(eq(userId), any(UserRequest.class), isNull())).thenReturn(updatedUser);
 
         mockMvc.perform(put("/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -121,7 +198,7 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(updatedUser.getId()));
 
-        verify(userServiceMock).updateUser(eq(userId), any(UserRequest.class));
+        verify(userServiceMock).updateUser(eq(userId), any(UserRequest.class), isNull());
     }
 
     @Test
@@ -129,7 +206,7 @@ public class UserControllerTest {
         Long userId = 1L;
         UserRequest updateRequest = new UserRequest();
 
-        when(userServiceMock.updateUser(eq(userId), any(UserRequest.class)))
+        when(userServiceMock.updateUser(eq(userId), any(UserRequest.class), isNull()))
                 .thenThrow(new UserNotFoundException("User with id " + userId + " not found"));
 
         mockMvc.perform(put("/users/{id}", userId)
@@ -144,7 +221,7 @@ public class UserControllerTest {
                                 "}"))
                 .andExpect(status().isNotFound());
 
-        verify(userServiceMock).updateUser(eq(userId), any(UserRequest.class));
+        verify(userServiceMock).updateUser(eq(userId), any(UserRequest.class), isNull());
     }
 
     @Test
@@ -153,7 +230,7 @@ public class UserControllerTest {
         UserRequest partialUpdateRequest = new UserRequest();
         User partiallyUpdatedUser = new User();
 
-        when(userServiceMock.partialUpdateUser(eq(userId), any(UserRequest.class))).thenReturn(partiallyUpdatedUser);
+        when(userServiceMock.partialUpdateUser(eq(userId), any(UserRequest.class), isNull())).thenReturn(partiallyUpdatedUser);
 
         mockMvc.perform(patch("/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -163,29 +240,29 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(partiallyUpdatedUser.getId()));
 
-        verify(userServiceMock).partialUpdateUser(eq(userId), any(UserRequest.class));
+        verify(userServiceMock).partialUpdateUser(eq(userId), any(UserRequest.class), isNull());
     }
 
     @Test
     public void deleteUser_whenSuccessful_thenReturnsNoContent() throws Exception {
         Long userId = 1L;
-        doNothing().when(userServiceMock).deleteUserById(userId);
+        doNothing().when(userServiceMock).deleteUserById(userId, null);
 
         mockMvc.perform(delete("/users/{id}", userId))
                 .andExpect(status().isNoContent());
 
-        verify(userServiceMock).deleteUserById(userId);
+        verify(userServiceMock).deleteUserById(userId, null);
     }
 
     @Test
     public void deleteUser_whenUserNotFound_thenThrowsException() throws Exception {
         Long userId = 1L;
-        doThrow(new UserNotFoundException("User with id " + userId + " not found")).when(userServiceMock).deleteUserById(userId);
+        doThrow(new UserNotFoundException("User with id " + userId + " not found")).when(userServiceMock).deleteUserById(userId, null);
 
         mockMvc.perform(delete("/users/{id}", userId))
                 .andExpect(status().isNotFound());
 
-        verify(userServiceMock).deleteUserById(userId);
+        verify(userServiceMock).deleteUserById(userId, null);
     }
 
     @Test
@@ -209,4 +286,273 @@ public class UserControllerTest {
 
         verify(userServiceMock).findAll(any(PageRequest.class), eq(from), eq(to));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getAllUsers_whenSamePageRequestedAgain_thenServesCachedPage() throws Exception {
+        List<User> users = List.of(User.builder().id(1L).firstName("John").version(0L).build());
+
+        when(userServiceMock.findAll(any(PageRequest.class), isNull(), isNull())).thenReturn(users);
+
+        String first = mockMvc.perform(get("/users").param("size", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/users").param("size", "10").param("from", "1990-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(first, true));
+
+        verify(userServiceMock, times(1)).findAll(any(PageRequest.class), any(), any());
+    }
+
+    @Test
+    public void getAllUsers_whenCborAccepted_thenReturnsCborPage() throws Exception {
+        List<User> users = List.of(User.builder().id(1L).firstName("John").version(0L).build());
+
+        when(userServiceMock.findAll(any(PageRequest.class), isNull(), isNull())).thenReturn(users);
+
+        byte[] body = mockMvc.perform(get("/users").accept("application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("John", Jackson2ObjectMapperBuilder.cbor().build().readTree(body).get(0).get("firstName").asText());
+    }
+
+    @Test
+    public void getAllUsers_whenNoFormatAcceptable_thenReturnsNotAcceptable() throws Exception {
+        mockMvc.perform(get("/users").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+
+        verify(userServiceMock, never()).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void getUser_whenSmileAccepted_thenReturnsSmile() throws Exception {
+        when(userServiceMock.findById(1L)).thenReturn(User.builder().id(1L).firstName("John").build());
+
+        byte[] body = mockMvc.perform(get("/users/{id}", 1L).accept(ContentFormatConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ContentFormatConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("John", Jackson2ObjectMapperBuilder.smile().build().readTree(body).get("firstName").asText());
+    }
+
+    @Test
+    public void getAllUsers_whenFieldsRequested_thenReturnsSelectedFields() throws Exception {
+        List<Map<String, Object>> users = List.of(Map.of("id", 1L, "firstName", "John"));
+
+        when(userServiceMock.findAllFields(any(PageRequest.class), isNull(), isNull(), eq(List.of("id", "firstName"))))
+                .thenReturn(users);
+
+        mockMvc.perform(get("/users").param("fields", "id,firstName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+
+        verify(userServiceMock, never()).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void searchUsers_whenCalled_thenReturnsMatches() throws Exception {
+        List<User> users = List.of(new User(), new User());
+
+        when(userServiceMock.searchUsers("jo", 5)).thenReturn(users);
+
+        mockMvc.perform(get("/users/search")
+                        .param("q", "jo")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(users.size())));
+
+        verify(userServiceMock).searchUsers("jo", 5);
+    }
+
+    @Test
+    public void getUsersAfter_whenMoreUsersAvailable_thenReturnsNextCursorHeader() throws Exception {
+        List<User> users = List.of(new User(), new User());
+
+        when(userServiceMock.findAllAfter("", 2, null, null)).thenReturn(new UserSlice(users, "Mg"));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "Mg"))
+                .andExpect(jsonPath("$", hasSize(users.size())));
+
+        verify(userServiceMock).findAllAfter("", 2, null, null);
+        verify(userServiceMock, never()).findAll(any(), any(), any());
+    }
+
+    @Test
+    public void exportUsers_whenCalled_thenStreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userServiceMock).exportUsers(isNull(), isNull(), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    public void createUsers_whenBatchPosted_thenReturnsResultPerItem() throws Exception {
+        when(userServiceMock.createUsers(anyList()))
+                .thenReturn(List.of(UserBatchResult.created(0, 1L), UserBatchResult.failed(1, "email must be a well-formed email address")));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "{\"email\":\"user@example.com\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"birthDate\":\"1990-01-01\"}," +
+                                "{\"email\":\"broken\",\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"birthDate\":\"1990-01-01\"}" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].error").value("email must be a well-formed email address"));
+
+        verify(userServiceMock).createUsers(argThat(requests -> requests.size() == 2));
+    }
+
+    @Test
+    public void getUser_whenUserFound_thenReturnsETagAndLastModified() throws Exception {
+        Long userId = 1L;
+        User user = User.builder().id(userId).version(4L).updatedAt(Instant.parse("2024-05-01T10:15:30Z")).build();
+
+        when(userServiceMock.findById(userId)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 May 2024 10:15:30 GMT"));
+    }
+
+    @Test
+    public void getUser_whenETagMatches_thenReturnsNotModifiedWithoutBody() throws Exception {
+        Long userId = 1L;
+        User user = User.builder().id(userId).version(4L).build();
+
+        when(userServiceMock.findById(userId)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", userId).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getAllUsers_whenETagMatches_thenReturnsNotModified() throws Exception {
+        List<User> users = List.of(User.builder().id(1L).version(0L).build(), User.builder().id(2L).version(3L).build());
+
+        when(userServiceMock.findAll(any(PageRequest.class), isNull(), isNull())).thenReturn(users);
+
+        String eTag = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void updateUser_whenIfMatchProvided_thenPassesExpectedVersion() throws Exception {
+        Long userId = 1L;
+        User updatedUser = User.builder().id(userId).version(5L).build();
+
+        when(userServiceMock.updateUser(eq(userId), any(UserRequest.class), eq(4L))).thenReturn(updatedUser);
+
+        mockMvc.perform(put("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"update@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    public void deleteUser_whenIfMatchIsWeak_thenReturnsPreconditionFailed() throws Exception {
+        Long userId = 1L;
+
+        mockMvc.perform(delete("/users/{id}", userId).header(HttpHeaders.IF_MATCH, "W/\"4\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userServiceMock, never()).deleteUserById(any(), any());
+    }
+
+    @Test
+    public void updateUser_whenRespondAsyncPreferred_thenReturnsAcceptedWithTrackingId() throws Exception {
+        Long userId = 1L;
+        UserUpdateStatus status = UserUpdateStatus.pending("abc", userId);
+
+        when(writeBehindQueueMock.submit(eq(userId), any(UserRequest.class), eq(false), eq(4L))).thenReturn(status);
+
+        mockMvc.perform(put("/users/{id}", userId)
+                        .header("Prefer", "respond-async")
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"update@example.com\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/users/updates/abc"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.trackingId").value("abc"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+
+        verify(userServiceMock, never()).updateUser(any(), any(), any());
+    }
+
+    @Test
+    public void updateUser_whenRespondAsyncPreferredButWriteBehindDisabled_thenUpdatesSynchronously() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setVersion(5L);
+        when(writeBehindQueueProvider.getIfAvailable()).thenReturn(null);
+        when(userServiceMock.updateUser(eq(1L), any(UserRequest.class), isNull())).thenReturn(user);
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"update@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Preference-Applied"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+
+        verifyNoInteractions(writeBehindQueueMock);
+    }
+
+    @Test
+    public void partialUpdateUser_whenQueueIsFull_thenReturnsServiceUnavailable() throws Exception {
+        when(writeBehindQueueMock.submit(eq(1L), any(UserRequest.class), eq(true), isNull()))
+                .thenThrow(new WriteBehindQueueFullException(10));
+
+        mockMvc.perform(patch("/users/{id}", 1L)
+                        .header("Prefer", "return=minimal, respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phone\":\"123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    public void getUpdateStatus_whenTrackingIdIsUnknown_thenReturnsNotFound() throws Exception {
+        when(writeBehindQueueMock.getStatus("missing")).thenThrow(new UpdateNotFoundException("missing"));
+
+        mockMvc.perform(get("/users/updates/{trackingId}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Map<MediaType, ObjectMapper> listEncoders() {
+        Map<MediaType, ObjectMapper> encoders = new LinkedHashMap<>();
+        encoders.put(MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().build());
+        encoders.put(MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build());
+        return encoders;
+    }
+}
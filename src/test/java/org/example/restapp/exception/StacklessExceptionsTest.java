@@ -0,0 +1,38 @@
+package org.example.restapp.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StacklessExceptionsTest {
+
+    @Test
+    void userNotFoundException_whenThrown_thenCapturesNoStackTrace() {
+        UserNotFoundException thrown = assertThrows(UserNotFoundException.class, () -> {
+            throw new UserNotFoundException(42L);
+        });
+
+        assertEquals(0, thrown.getStackTrace().length);
+        assertEquals("User with id 42 not found", thrown.getMessage());
+    }
+
+    @Test
+    void userNotFoundException_whenCauseGiven_thenKeepsCauseButNoStackTrace() {
+        IllegalStateException cause = new IllegalStateException("lookup failed");
+
+        UserNotFoundException exception = new UserNotFoundException("User with id 42 not found", cause);
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertSame(cause, exception.getCause());
+    }
+
+    @Test
+    void invalidRequestException_whenThrown_thenCapturesNoStackTrace() {
+        InvalidRequestException thrown = assertThrows(InvalidRequestException.class, () -> {
+            throw new InvalidRequestException("Invalid date range");
+        });
+
+        assertEquals(0, thrown.getStackTrace().length);
+        assertEquals("Invalid date range", thrown.getMessage());
+    }
+}
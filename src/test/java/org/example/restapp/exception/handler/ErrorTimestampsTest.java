@@ -0,0 +1,50 @@
+package org.example.restapp.exception.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorTimestampsTest {
+
+    private final AtomicReference<Instant> instant = new AtomicReference<>(Instant.parse("2024-05-01T14:30:15.100Z"));
+
+    private final ErrorTimestamps timestamps = new ErrorTimestamps(new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant.get();
+        }
+    });
+
+    @Test
+    void now_whenSameSecond_thenReusesFormattedTimestamp() {
+        String first = timestamps.now();
+        instant.set(Instant.parse("2024-05-01T14:30:15.900Z"));
+
+        assertEquals("2024-05-01 14:30:15", first);
+        assertSame(first, timestamps.now());
+    }
+
+    @Test
+    void now_whenSecondChanges_thenFormatsAgain() {
+        timestamps.now();
+        instant.set(Instant.parse("2024-05-01T14:30:16Z"));
+
+        assertEquals("2024-05-01 14:30:16", timestamps.now());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.restapp.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), Set.of("/users/changes"));
+
+    @Test
+    void doFilter_whenPermitAvailable_thenPassesRequestThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), response, (req, res) -> {});
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    void doFilter_whenLimitReached_thenRejectsWithServiceUnavailable() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/2"), rejected, (req, res) -> fail("should not be admitted"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/3"), admitted, (req, res) -> {});
+        assertEquals(HttpStatus.OK.value(), admitted.getStatus());
+    }
+
+    @Test
+    void doFilter_whenResponseStreamsAsynchronously_thenHoldsPermitUntilAsyncCompletes() throws Exception {
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/users/export");
+        streaming.setAsyncSupported(true);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), rejected, (req, res) -> fail("should not be admitted"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+
+        ((MockAsyncContext) streaming.getAsyncContext()).complete();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/2"), admitted, (req, res) -> {});
+        assertEquals(HttpStatus.OK.value(), admitted.getStatus());
+    }
+
+    @Test
+    void doFilter_whenChangeStreamIsOpen_thenDoesNotTakeAPermit() throws Exception {
+        MockHttpServletRequest subscription = new MockHttpServletRequest("GET", "/users/changes");
+        subscription.setAsyncSupported(true);
+        filter.doFilter(subscription, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertTrue(subscription.isAsyncStarted());
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), admitted, (req, res) -> {});
+        assertEquals(HttpStatus.OK.value(), admitted.getStatus());
+    }
+}
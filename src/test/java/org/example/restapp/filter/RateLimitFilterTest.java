@@ -0,0 +1,69 @@
+package org.example.restapp.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.restapp.admission.RateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Frozen clock: 10 read tokens and 1 write token per client, never refilled
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter(1, 10, 100, () -> 0L),
+            new RateLimiter(1, 1, 100, () -> 0L),
+            100, meterRegistry);
+
+    @Test
+    void doFilter_whenLargePageRequested_thenChargesBySize() throws Exception {
+        assertEquals(HttpStatus.OK.value(), perform(get("10.0.0.1", "1000")).getStatus());
+
+        MockHttpServletResponse rejected = perform(get("10.0.0.1", "10"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.counter(RateLimitFilter.REJECTED_METRIC, "type", "read").count());
+    }
+
+    @Test
+    void doFilter_whenReadsUsedUp_thenWritesAndOtherAddressesStillPass() throws Exception {
+        perform(get("10.0.0.1", "1000"));
+
+        MockHttpServletRequest write = new MockHttpServletRequest("PATCH", "/users/1");
+        write.setRemoteAddr("10.0.0.1");
+
+        assertEquals(HttpStatus.OK.value(), perform(write).getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform(write).getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(get("10.0.0.2", "10")).getStatus());
+    }
+
+    @Test
+    void doFilter_whenApiKeyRotatedFromSameAddress_thenStillRejected() throws Exception {
+        MockHttpServletRequest first = get("10.0.0.1", "1000");
+        first.addHeader("X-Api-Key", "first");
+        perform(first);
+
+        MockHttpServletRequest rotated = get("10.0.0.1", "10");
+        rotated.addHeader("X-Api-Key", "second");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform(rotated).getStatus());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {});
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String address, String size) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        request.setRemoteAddr(address);
+        request.setParameter("size", size);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.restapp.filter;
+
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1), 100);
+
+    @Test
+    void doFilter_whenClientHasNotWritten_thenReadsGoToReplica() throws Exception {
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, readRoute(filter, request("GET", "192.0.2.1")));
+    }
+
+    @Test
+    void doFilter_whenClientWroteRecently_thenItsReadsGoToPrimary() throws Exception {
+        filter.doFilter(request("PATCH", "192.0.2.2"), new MockHttpServletResponse(), (req, res) -> {});
+
+        assertEquals(ReplicaRoutingDataSource.Route.PRIMARY, readRoute(filter, request("GET", "192.0.2.2")));
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, readRoute(filter, request("GET", "192.0.2.1")));
+    }
+
+    @Test
+    void doFilter_whenClientIdHeaderSent_thenStillKeyedOnAddress() throws Exception {
+        MockHttpServletRequest write = request("PATCH", "192.0.2.2");
+        write.addHeader("X-Client-Id", "shared");
+        filter.doFilter(write, new MockHttpServletResponse(), (req, res) -> {});
+
+        MockHttpServletRequest read = request("GET", "192.0.2.1");
+        read.addHeader("X-Client-Id", "shared");
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, readRoute(filter, read));
+    }
+
+    @Test
+    void doFilter_whenStickyWindowHasPassed_thenReadsGoBackToReplica() throws Exception {
+        ReadYourWritesFilter shortWindow = new ReadYourWritesFilter(Duration.ofMillis(50), 100);
+        shortWindow.doFilter(request("PUT", "192.0.2.2"), new MockHttpServletResponse(), (req, res) -> {});
+        Thread.sleep(100);
+
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, readRoute(shortWindow, request("GET", "192.0.2.2")));
+    }
+
+    @Test
+    void doFilter_whenRequestCompletes_thenThreadIsNoLongerPinned() throws Exception {
+        filter.doFilter(request("POST", "192.0.2.2"), new MockHttpServletResponse(), (req, res) -> {});
+
+        assertEquals(ReplicaRoutingDataSource.Route.REPLICA, readOnlyRoute());
+    }
+
+    private static ReplicaRoutingDataSource.Route readRoute(ReadYourWritesFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        AtomicReference<ReplicaRoutingDataSource.Route> route = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> route.set(readOnlyRoute()));
+        return route.get();
+    }
+
+    // Where a @Transactional(readOnly = true) method would be sent from the current thread
+    private static ReplicaRoutingDataSource.Route readOnlyRoute() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return ReplicaRoutingDataSource.currentRoute();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/users/1");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
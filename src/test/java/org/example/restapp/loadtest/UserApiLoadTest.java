@@ -0,0 +1,252 @@
+package org.example.restapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.restapp.dto.UserCursor;
+import org.example.restapp.generator.DataGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mixed read/write workload against the full application running on an in-memory H2 database and
+ * reports p50/p99 latency and requests/sec per endpoint. Only runs with {@code mvn test -Ploadtest}; size and
+ * length are tuned with {@code -Dloadtest.users}, {@code -Dloadtest.duration}, {@code -Dloadtest.warmup} and
+ * {@code -Dloadtest.concurrency}. The report is printed and written to {@code target/loadtest-report.json}.
+ */
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserApiLoadTest {
+
+    private static final Path REPORT_FILE = Path.of("target", "loadtest-report.json");
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${loadtest.users:10000}")
+    private int users;
+
+    @Value("${loadtest.duration:30s}")
+    private Duration duration;
+
+    @Value("${loadtest.warmup:5s}")
+    private Duration warmup;
+
+    @Value("${loadtest.concurrency:32}")
+    private int concurrency;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    @Test
+    void mixedWorkload_whenRunAgainstSeededUsers_thenReportsLatencyPerEndpoint() throws Exception {
+        dataGenerator.awaitCompletion(Duration.ofMinutes(30));
+        run(warmup);
+        Map<Operation, Samples> samples = run(duration);
+
+        List<EndpointReport> report = new ArrayList<>();
+        for (Map.Entry<Operation, Samples> entry : samples.entrySet()) {
+            report.add(entry.getValue().report(entry.getKey(), duration));
+        }
+        print(report);
+        Files.createDirectories(REPORT_FILE.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT_FILE.toFile(), report);
+
+        for (EndpointReport endpoint : report) {
+            assertTrue(endpoint.errors() <= endpoint.requests() * MAX_ERROR_RATE,
+                    endpoint.endpoint() + " failed " + endpoint.errors() + " of " + endpoint.requests() + " requests");
+        }
+    }
+
+    private Map<Operation, Samples> run(Duration length) throws Exception {
+        long deadline = System.nanoTime() + length.toNanos();
+        List<Future<Map<Operation, Samples>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> work(deadline)));
+            }
+        }
+
+        Map<Operation, Samples> merged = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, Samples>> worker : workers) {
+            worker.get().forEach((operation, samples) -> merged.merge(operation, samples, Samples::merge));
+        }
+        return merged;
+    }
+
+    // Each worker keeps its own samples so recording never contends across threads
+    private Map<Operation, Samples> work(long deadline) throws InterruptedException {
+        Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+        while (System.nanoTime() < deadline) {
+            Operation operation = Operation.pick();
+            HttpRequest request = request(operation);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                ok = status < 400;
+            } catch (IOException e) {
+                ok = false;
+            }
+            samples.computeIfAbsent(operation, o -> new Samples()).add(System.nanoTime() - start, ok);
+        }
+        return samples;
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextLong(1, users + 1);
+        return switch (operation) {
+            case GET_BY_ID -> get("/users/" + id);
+            case LIST_PAGE -> get("/users?page=" + random.nextInt(Math.max(1, users / 20)) + "&size=20");
+            case LIST_AFTER -> get("/users?after=" + new UserCursor(null, id).encode() + "&size=20");
+            case CREATE -> send("POST", "/users", userJson());
+            case UPDATE -> send("PUT", "/users/" + id, userJson());
+            case PARTIAL_UPDATE -> send("PATCH", "/users/" + id,
+                    "{\"phone\":\"+1-555-" + random.nextInt(1_000_000, 10_000_000) + "\"}");
+        };
+    }
+
+    private String userJson() {
+        return """
+                {"email":"loadtest%d@example.com","firstName":"Load","lastName":"Test",\
+                "birthDate":"1990-01-01","address":"1 Load Street","phone":"+1-555-0000000"}"""
+                .formatted(emailSequence.incrementAndGet());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void print(List<EndpointReport> report) {
+        StringBuilder table = new StringBuilder()
+                .append("%nLoad test: %d users, %d clients, %s, virtual threads %s%n"
+                        .formatted(users, concurrency, duration, virtualThreads ? "on" : "off"))
+                .append("%-16s %9s %7s %9s %9s %9s %9s%n"
+                        .formatted("endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        for (EndpointReport endpoint : report) {
+            table.append("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f%n".formatted(endpoint.endpoint(),
+                    endpoint.requests(), endpoint.errors(), endpoint.requestsPerSecond(),
+                    endpoint.p50Millis(), endpoint.p99Millis(), endpoint.maxMillis()));
+        }
+        System.out.print(table);
+    }
+
+    private enum Operation {
+        GET_BY_ID(50),
+        LIST_PAGE(15),
+        LIST_AFTER(5),
+        CREATE(10),
+        UPDATE(10),
+        PARTIAL_UPDATE(10);
+
+        private static final Operation[] WEIGHTED = Arrays.stream(values())
+                .flatMap(operation -> Stream.generate(() -> operation).limit(operation.weight))
+                .toArray(Operation[]::new);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick() {
+            return WEIGHTED[ThreadLocalRandom.current().nextInt(WEIGHTED.length)];
+        }
+    }
+
+    public record EndpointReport(String endpoint, long requests, long errors, double requestsPerSecond,
+                                 double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        Samples merge(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.latencies[i], true);
+            }
+            errors += other.errors;
+            return this;
+        }
+
+        EndpointReport report(Operation operation, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointReport(operation.name(), size, errors,
+                    size / (duration.toNanos() / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.restapp.outbox;
+
+import org.example.restapp.controller.UserChangeController;
+import org.example.restapp.dto.UserChange;
+import org.example.restapp.exception.TooManySubscribersException;
+import org.example.restapp.model.UserOutboxEntry;
+import org.example.restapp.repository.UserOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class SseUserChangeStreamTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private final UserOutboxRepository outboxRepository = mock(UserOutboxRepository.class);
+    private final SseUserChangeStream changeStream = new SseUserChangeStream(outboxRepository);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(changeStream, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(changeStream, "timeout", Duration.ofMinutes(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserChangeController(changeStream)).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeStream.close();
+    }
+
+    @Test
+    void subscribe_whenOffsetGiven_thenReplaysOnlyLaterChangesInOrder() throws Exception {
+        when(outboxRepository.findSequencedAfter(eq(2L), any(Limit.class))).thenReturn(entries(3, 4, 5));
+
+        MockHttpServletResponse response = open("/users/changes?offset=2");
+
+        assertEquals(List.of(3L, 4L, 5L), awaitEventIds(response, 3));
+    }
+
+    @Test
+    void subscribe_whenLastEventIdSent_thenResumesAfterIt() throws Exception {
+        when(outboxRepository.findSequencedAfter(eq(4L), any(Limit.class))).thenReturn(entries(5));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/users/changes")
+                        .header("Last-Event-ID", "4")
+                        .param("offset", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        assertEquals(List.of(5L), awaitEventIds(response, 1));
+    }
+
+    @Test
+    void subscribe_whenLiveChangesOverlapCatchUp_thenSendsEachOffsetOnce() throws Exception {
+        // The relay publishes 3..6 while the subscriber is still reading 3..4 from the outbox
+        when(outboxRepository.findSequencedAfter(eq(2L), any(Limit.class))).thenAnswer(invocation -> {
+            changeStream.publish(changes(3, 4, 5, 6));
+            return entries(3, 4);
+        });
+
+        MockHttpServletResponse response = open("/users/changes?offset=2");
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), awaitEventIds(response, 4));
+
+        changeStream.publish(changes(6, 7));
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), awaitEventIds(response, 5));
+    }
+
+    @Test
+    void subscribe_whenLimitReached_thenRejectsFurtherSubscribers() {
+        ReflectionTestUtils.setField(changeStream, "maxSubscribers", 1);
+        when(outboxRepository.findSequencedAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        changeStream.subscribe(0L);
+
+        assertThrows(TooManySubscribersException.class, () -> changeStream.subscribe(0L));
+        assertEquals(1, changeStream.subscribers());
+    }
+
+    @Test
+    void subscribe_whenManySubscribeConcurrently_thenNeverExceedsLimit() throws Exception {
+        int limit = 5;
+        int callers = 50;
+        ReflectionTestUtils.setField(changeStream, "maxSubscribers", limit);
+        when(outboxRepository.findSequencedAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                Callable<Boolean> subscribe = () -> {
+                    start.await();
+                    try {
+                        changeStream.subscribe(0L);
+                        return true;
+                    } catch (TooManySubscribersException e) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(subscribe));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(5, TimeUnit.SECONDS)) {
+                    admitted++;
+                }
+            }
+            assertEquals(limit, admitted);
+            assertEquals(limit, changeStream.subscribers());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse open(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    // Waits until at least the expected number of events arrived, then gives duplicates a moment to show up
+    private static List<Long> awaitEventIds(MockHttpServletResponse response, int expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (eventIds(response).size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return eventIds(response);
+    }
+
+    private static List<Long> eventIds(MockHttpServletResponse response) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(response.getContentAsString());
+        while (matcher.find()) {
+            ids.add(Long.valueOf(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private static List<UserOutboxEntry> entries(long... positions) {
+        return LongStream.of(positions)
+                .mapToObj(position -> UserOutboxEntry.builder()
+                        .id(position)
+                        .userId(1L)
+                        .type(UserChange.Type.SAVED)
+                        .payload("{\"id\":1}")
+                        .createdAt(Instant.parse("2024-05-01T00:00:00Z"))
+                        .position(position)
+                        .build())
+                .toList();
+    }
+
+    private static List<UserChange> changes(long... positions) {
+        return entries(positions).stream().map(UserChange::of).toList();
+    }
+}
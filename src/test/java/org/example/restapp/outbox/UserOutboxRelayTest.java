@@ -0,0 +1,102 @@
+package org.example.restapp.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.restapp.dto.UserChange;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.model.User;
+import org.example.restapp.repository.UserOutboxRepository;
+import org.example.restapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserOutboxRelayTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserOutboxRelay relay;
+
+    @Autowired
+    private UserOutboxRepository outboxRepository;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        // Other tests leave unrelayed changes behind; drain them so only this test's changes are recorded
+        while (relay.relay() > 0) {
+        }
+        sink.changes.clear();
+    }
+
+    @Test
+    void relay_whenUserCreatedUpdatedAndDeleted_thenPublishesChangesInOrder() throws Exception {
+        User created = userService.createUser(new UserRequest(UUID.randomUUID() + "@example.com",
+                "John", "Doe", LocalDate.of(1990, 1, 1), null, null));
+        UserRequest patch = new UserRequest();
+        patch.setPhone("1234567890");
+        userService.partialUpdateUser(created.getId(), patch, null);
+        userService.deleteUserById(created.getId(), null);
+
+        relay.relay();
+
+        List<UserChange> changes = sink.changes.stream()
+                .filter(change -> change.userId().equals(created.getId()))
+                .toList();
+        assertEquals(List.of(UserChange.Type.SAVED, UserChange.Type.SAVED, UserChange.Type.DELETED),
+                changes.stream().map(UserChange::type).toList());
+        assertEquals(changes.get(0).offset() + 1, changes.get(1).offset());
+        assertEquals(changes.get(1).offset() + 1, changes.get(2).offset());
+
+        User updated = objectMapper.readValue(changes.get(1).user(), User.class);
+        assertEquals("1234567890", updated.getPhone());
+        assertEquals(1L, updated.getVersion());
+        assertNull(changes.get(2).user());
+        assertTrue(outboxRepository.findUnpublished(Limit.of(1)).isEmpty());
+    }
+
+    @Test
+    void relay_whenTransactionRollsBack_thenPublishesNothing() {
+        assertThrows(RuntimeException.class, () -> userService.updateUser(-1L, new UserRequest(), null));
+
+        assertEquals(0, relay.relay());
+        assertTrue(sink.changes.isEmpty());
+    }
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    static class RecordingSink implements UserChangeSink {
+
+        private final List<UserChange> changes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(List<UserChange> changes) {
+            this.changes.addAll(changes);
+        }
+    }
+}
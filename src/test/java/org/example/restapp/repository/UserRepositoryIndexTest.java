@@ -0,0 +1,136 @@
+package org.example.restapp.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the PostgreSQL plans for the main query paths at production-like volume. The rows are inserted once
+ * for the class with negative ids, so they never collide with sequence ids, and are deleted afterwards.
+ * <p>
+ * Each test calls the repository and explains the SQL Hibernate actually sent, so a change to the query method,
+ * its sort or its paging shows up here rather than in a handwritten copy of the statement.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserRepositoryIndexTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    // Per thread, so background queries such as the outbox relay's are not mistaken for the call under test
+    private static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                List<String> captured = statements.get();
+                if (captured != null) {
+                    captured.add(sql);
+                }
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    public void setUp() {
+        jdbcTemplate.update("""
+                insert into users (id, email, first_name, last_name, birth_date, version, updated_at)
+                select -g, 'explain' || g || '@example.com', 'First' || g, 'Last' || g,
+                       date '1950-01-01' + (g % 18250), 0, now()
+                from generate_series(1, ?) g""", ROWS);
+        jdbcTemplate.execute("analyze users");
+    }
+
+    @AfterAll
+    public void tearDown() {
+        jdbcTemplate.update("delete from users where id < 0");
+        jdbcTemplate.execute("analyze users");
+    }
+
+    @Test
+    void findAllByBirthDateBetween_whenMillionRows_thenUsesBirthDateIndex() {
+        LocalDate from = LocalDate.of(1980, 1, 1);
+        LocalDate to = LocalDate.of(1980, 12, 31);
+
+        // The same first page UserServiceImpl asks for; Hibernate binds the offset and row limit after the range
+        String sql = capture(() -> userRepository.findAllByBirthDateBetween(
+                PageRequest.of(0, 20, Sort.by("birthDate", "id")), from, to));
+        String plan = explain(sql, from, to, 0, 20);
+
+        assertTrue(plan.contains("users_birth_date_id_idx"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void searchByPrefix_whenMillionRows_thenEveryBranchUsesPrefixIndex() throws NoSuchMethodException {
+        String sql = capture(() -> userRepository.searchByPrefix("explain12", "explain12%", 20));
+
+        // Hibernate binds a native query's named parameters once per occurrence, in the order they appear
+        String declared = UserRepository.class.getMethod("searchByPrefix", String.class, String.class, int.class)
+                .getAnnotation(Query.class).value();
+        Map<String, Object> values = Map.of("query", "explain12", "prefix", "explain12%", "limit", 20);
+        List<Object> args = new ArrayList<>();
+        Matcher parameter = NAMED_PARAMETER.matcher(declared);
+        while (parameter.find()) {
+            args.add(values.get(parameter.group(1)));
+        }
+
+        String plan = explain(sql, args.toArray());
+
+        assertTrue(plan.contains("users_full_name_prefix_idx"), plan);
+        assertTrue(plan.contains("users_last_name_prefix_idx"), plan);
+        assertTrue(plan.contains("users_email_prefix_idx"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    // Returns the first statement Hibernate prepared while running the call, i.e. the content query of a page
+    private String capture(Runnable call) {
+        List<String> captured = new ArrayList<>();
+        statements.set(captured);
+        try {
+            call.run();
+        } finally {
+            statements.remove();
+        }
+        assertFalse(captured.isEmpty(), "no statement was captured");
+        return captured.getFirst();
+    }
+
+    private String explain(String sql, Object... args) {
+        assertEquals(args.length, sql.chars().filter(c -> c == '?').count(), sql);
+        List<String> lines = jdbcTemplate.queryForList("explain " + sql, String.class, args);
+        return String.join("\n", lines);
+    }
+}
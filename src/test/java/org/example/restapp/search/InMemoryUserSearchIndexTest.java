@@ -0,0 +1,69 @@
+package org.example.restapp.search;
+
+import org.example.restapp.event.UserChangedEvent;
+import org.example.restapp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryUserSearchIndexTest {
+
+    private InMemoryUserSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new InMemoryUserSearchIndex();
+        index.index(user(1L, "Annabel", "Smith", "a.smith@example.com"));
+        index.index(user(2L, "John", "Annan", "john@example.com"));
+        index.index(user(3L, "Ann", "Lee", "lee@example.com"));
+        index.index(user(4L, "Peter", "Parker", "annie@example.com"));
+    }
+
+    @Test
+    void search_whenPrefixMatchesSeveralFields_thenRanksFullNameThenLastNameThenEmail() {
+        List<User> actual = index.search("ann", 10);
+
+        assertEquals(List.of(3L, 1L, 2L, 4L), ids(actual));
+    }
+
+    @Test
+    void search_whenQueryContainsFirstAndLastName_thenMatchesFullName() {
+        List<User> actual = index.search("john an", 10);
+
+        assertEquals(List.of(2L), ids(actual));
+    }
+
+    @Test
+    void search_whenMoreMatchesThanLimit_thenReturnsBestRankedOnly() {
+        List<User> actual = index.search("ann", 2);
+
+        assertEquals(List.of(3L, 1L), ids(actual));
+    }
+
+    @Test
+    void onUserChanged_whenUserUpdatedAndDeleted_thenIndexFollows() {
+        index.onUserChanged(UserChangedEvent.saved(user(3L, "Bob", "Lee", "lee@example.com")));
+        index.onUserChanged(UserChangedEvent.deleted(1L));
+
+        assertEquals(List.of(2L, 4L), ids(index.search("ann", 10)));
+        assertEquals(List.of(3L), ids(index.search("bob", 10)));
+    }
+
+    @Test
+    void similarity_whenComparedWithPgTrgmExamples_thenMatches() {
+        // select similarity('word', 'two words') = 0.36363637 in PostgreSQL
+        assertEquals(0.3636, InMemoryUserSearchIndex.similarity(
+                InMemoryUserSearchIndex.trigrams("word"), InMemoryUserSearchIndex.trigrams("two words")), 0.0001);
+    }
+
+    private static User user(Long id, String firstName, String lastName, String email) {
+        return User.builder().id(id).firstName(firstName).lastName(lastName).email(email).build();
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.restapp.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.restapp.dto.UserLookup;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.model.User;
+import org.example.restapp.repository.UserRepository;
+import org.example.restapp.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class UserServiceImplStatementCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+    }
+
+    @Test
+    void deleteUserById_whenUserExists_thenIssuesSingleDelete() {
+        userService.deleteUserById(user.getId(), null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void deleteUserById_whenVersionMatches_thenIssuesSingleDelete() {
+        userService.deleteUserById(user.getId(), user.getVersion());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteUserById_whenUserDoesNotExist_thenIssuesSingleDelete() {
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(-1L, null));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void partialUpdateUser_whenUserExists_thenIssuesSelectAndUpdate() {
+        UserRequest request = new UserRequest();
+        request.setPhone("1234567890");
+
+        User actual = userService.partialUpdateUser(user.getId(), request, null);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(user.getVersion() + 1, actual.getVersion());
+        assertEquals("1234567890", userRepository.findById(user.getId()).orElseThrow().getPhone());
+    }
+
+    @Test
+    void updateUser_whenUserExists_thenIssuesSelectAndUpdate() {
+        UserRequest request = new UserRequest(user.getEmail(), "Jane", "Roe", user.getBirthDate(), null, null);
+
+        userService.updateUser(user.getId(), request, user.getVersion());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void findAllFields_whenFieldsSelected_thenLoadsNoEntities() {
+        List<Map<String, Object>> rows = userService.findAllFields(PageRequest.of(0, 5), user.getBirthDate(),
+                LocalDate.now(), List.of("firstName"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(rows.isEmpty());
+        assertEquals(List.of("id", "firstName"), List.copyOf(rows.getFirst().keySet()));
+    }
+
+    @Test
+    void findByIds_whenNothingCached_thenIssuesSingleQuery() {
+        UserLookup lookup = userService.findByIds(List.of(-1L, user.getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of(user.getId()), lookup.users().stream().map(User::getId).toList());
+        assertEquals(List.of(-1L), lookup.missing());
+    }
+}
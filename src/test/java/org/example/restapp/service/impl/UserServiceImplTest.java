@@ -1,17 +1,24 @@
 package org.example.restapp.service.impl;
 
 import jakarta.validation.ValidationException;
+import org.example.restapp.datasource.ReplicaRoutingDataSource;
 import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
 import org.example.restapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.beans.factory.annotation.Value;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.example.restapp.dto.UserBatchResult;
+import org.example.restapp.dto.UserCursor;
+import org.example.restapp.dto.UserLookup;
 import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserSlice;
 import org.example.restapp.model.User;
 import org.example.restapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,11 +27,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @SpringBootTest
 public class UserServiceImplTest {
@@ -35,6 +56,9 @@ public class UserServiceImplTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Value("${user.min-age}")
     private int MIN_AGE;
 
@@ -45,6 +69,8 @@ public class UserServiceImplTest {
 
     @BeforeEach
     public void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
         user = User.builder()
                 .id(1L)
                 .email("user@example.com")
@@ -59,7 +85,7 @@ public class UserServiceImplTest {
 
         userList = new ArrayList<>();
         userList.add(user);
-        userList.add(new User(5L, "user2@example.com", "Doe", "John", LocalDate.of(1990, 1, 1), user.getAddress(), user.getPhone()));
+        userList.add(new User(5L, "user2@example.com", "Doe", "John", LocalDate.of(1990, 1, 1), user.getAddress(), user.getPhone(), null, null));
         userPage = new PageImpl<>(userList);
     }
 
@@ -119,13 +145,12 @@ public class UserServiceImplTest {
 
         Long existingUserId = user.getId();
         when(userRepositoryMock.findById(existingUserId)).thenReturn(Optional.of(user));
-        when(userRepositoryMock.save(any(User.class))).thenReturn(user);
 
-        User actual = userService.updateUser(existingUserId, updateRequest);
+        User actual = userService.updateUser(existingUserId, updateRequest, null);
 
         assertNotNull(actual);
         assertEquals(expected, actual);
-        verify(userRepositoryMock).save(user);
+        verify(userRepositoryMock, never()).save(any(User.class));
     }
 
     @Test
@@ -134,7 +159,7 @@ public class UserServiceImplTest {
         UserRequest updateRequest = new UserRequest();
         when(userRepositoryMock.findById(nonExistingUserId)).thenReturn(Optional.empty());
 
-        assertThrows(UserNotFoundException.class, () -> userService.updateUser(nonExistingUserId, updateRequest));
+        assertThrows(UserNotFoundException.class, () -> userService.updateUser(nonExistingUserId, updateRequest, null));
     }
 
     @Test
@@ -144,15 +169,13 @@ public class UserServiceImplTest {
 
         Long existingUserId = user.getId();
         when(userRepositoryMock.findById(existingUserId)).thenReturn(Optional.of(user));
-        when(userRepositoryMock.save(any(User.class))).thenReturn(user);
 
-        user.setEmail(partialUpdateRequest.getEmail());
-        User expected = user;
-        User actual = userService.partialUpdateUser(existingUserId, partialUpdateRequest);
+        User actual = userService.partialUpdateUser(existingUserId, partialUpdateRequest, null);
 
         assertNotNull(actual);
-        assertEquals(expected, actual);
-        verify(userRepositoryMock).save(user);
+        assertEquals(partialUpdateRequest.getEmail(), actual.getEmail());
+        assertEquals("John", actual.getFirstName());
+        verify(userRepositoryMock, never()).save(any(User.class));
     }
 
     @Test
@@ -161,26 +184,26 @@ public class UserServiceImplTest {
         UserRequest partialUpdateRequest = new UserRequest();
         when(userRepositoryMock.findById(nonExistingUserId)).thenReturn(Optional.empty());
 
-        assertThrows(UserNotFoundException.class, () -> userService.partialUpdateUser(nonExistingUserId, partialUpdateRequest));
+        assertThrows(UserNotFoundException.class, () -> userService.partialUpdateUser(nonExistingUserId, partialUpdateRequest, null));
     }
 
     @Test
     void deleteUserById_whenUserExists_thenUserIsDeleted() {
         Long existingUserId = user.getId();
-        when(userRepositoryMock.existsById(existingUserId)).thenReturn(true);
-        doNothing().when(userRepositoryMock).deleteById(existingUserId);
+        when(userRepositoryMock.removeById(existingUserId)).thenReturn(1);
 
-        userService.deleteUserById(existingUserId);
+        userService.deleteUserById(existingUserId, null);
 
-        verify(userRepositoryMock).deleteById(existingUserId);
+        verify(userRepositoryMock).removeById(existingUserId);
+        verify(userRepositoryMock, never()).existsById(existingUserId);
     }
 
     @Test
     void deleteUserById_whenUserDoesNotExist_thenThrowsException() {
         Long nonExistingUserId = 2L;
-        when(userRepositoryMock.findById(nonExistingUserId)).thenReturn(Optional.empty());
+        when(userRepositoryMock.removeById(nonExistingUserId)).thenReturn(0);
 
-        assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(nonExistingUserId));
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(nonExistingUserId, null));
     }
 
     @Test
@@ -193,7 +216,15 @@ public class UserServiceImplTest {
         assertNotNull(actual);
         assertEquals(userList.size(), actual.size());
         assertEquals(userList.getFirst(), actual.getFirst());
-        verify(userRepositoryMock).findAll(pageable);
+        verify(userRepositoryMock).findAll(PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    @Test
+    void findAll_whenPageSizeAboveMax_thenThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> userService.findAll(PageRequest.of(0, 10_000), null, null));
+        assertThrows(ValidationException.class, () -> userService.findAllAfter(null, 10_000, null, null));
+
+        verifyNoInteractions(userRepositoryMock);
     }
 
     @Test
@@ -209,7 +240,378 @@ public class UserServiceImplTest {
         assertNotNull(actual);
         assertEquals(userList.size(), actual.size());
         assertEquals(userList.getFirst(), actual.getFirst());
-        verify(userRepositoryMock).findAllByBirthDateBetween(pageable, from, to);
+        verify(userRepositoryMock).findAllByBirthDateBetween(PageRequest.of(0, 10, Sort.by("birthDate", "id")), from, to);
+    }
+
+    @Test
+    void findAllFields_whenFieldsRequested_thenSelectsIdAndRequestedFieldsOnly() {
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "firstName", "John"));
+        when(userRepositoryMock.findFields(any(), any(), any(), any(Pageable.class))).thenReturn(rows);
+
+        List<Map<String, Object>> actual = userService.findAllFields(PageRequest.of(0, 10), null, null,
+                List.of("firstName", " lastName", "id"));
+
+        assertEquals(rows, actual);
+        verify(userRepositoryMock).findFields(List.of("id", "firstName", "lastName"), null, null,
+                PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    @Test
+    void findAllFields_whenFieldUnknown_thenThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> userService.findAllFields(PageRequest.of(0, 10), null, null,
+                List.of("firstName", "password")));
+        verifyNoInteractions(userRepositoryMock);
+    }
+
+    @Test
+    void findAllAfter_whenNoCursor_thenReturnsFirstSliceWithNextCursor() {
+        when(userRepositoryMock.findAllByIdGreaterThan(eq(Long.MIN_VALUE), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(userList, PageRequest.of(0, 2), true));
+
+        UserSlice actual = userService.findAllAfter("", 2, null, null);
+
+        assertEquals(userList, actual.users());
+        assertEquals(new UserCursor(null, 5L), UserCursor.decode(actual.nextCursor()));
+        verify(userRepositoryMock, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findAllAfter_whenLastSlice_thenReturnsNoNextCursor() {
+        String after = new UserCursor(null, 1L).encode();
+        when(userRepositoryMock.findAllByIdGreaterThan(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(userList.getLast()), PageRequest.of(0, 2), false));
+
+        UserSlice actual = userService.findAllAfter(after, 2, null, null);
+
+        assertEquals(1, actual.users().size());
+        assertNull(actual.nextCursor());
+    }
+
+    @Test
+    void findAllAfter_whenDateRangeProvided_thenSeeksOnBirthDateAndId() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.now();
+        String after = new UserCursor(user.getBirthDate(), user.getId()).encode();
+        when(userRepositoryMock.findAllByBirthDateBetweenAfter(eq(from), eq(to), eq(user.getBirthDate()), eq(user.getId()), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(userList, PageRequest.of(0, 2), true));
+
+        UserSlice actual = userService.findAllAfter(after, 2, from, to);
+
+        assertEquals(userList, actual.users());
+        assertEquals(new UserCursor(LocalDate.of(1990, 1, 1), 5L), UserCursor.decode(actual.nextCursor()));
+    }
+
+    @Test
+    void findAllAfter_whenCursorIsMalformed_thenThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> userService.findAllAfter("not a cursor!", 10, null, null));
+    }
+
+    @Test
+    void findAllAfter_whenCursorLacksBirthDateForDateRange_thenThrowsValidationException() {
+        String after = new UserCursor(null, 1L).encode();
+
+        assertThrows(ValidationException.class,
+                () -> userService.findAllAfter(after, 10, LocalDate.of(1990, 1, 1), LocalDate.now()));
+    }
+
+    @Test
+    void exportUsers_whenNoDateRangeProvided_thenWritesOneJsonLinePerUser() throws Exception {
+        when(userRepositoryMock.streamAll()).thenReturn(userList.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userService.exportUsers(null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(userList.size(), lines.length);
+        assertTrue(lines[0].contains("\"email\":\"user@example.com\""));
+        assertTrue(lines[1].contains("\"email\":\"user2@example.com\""));
+    }
+
+    @Test
+    void exportUsers_whenDateRangeProvided_thenStreamsFilteredUsers() throws Exception {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.now();
+        when(userRepositoryMock.streamAllByBirthDateBetween(from, to)).thenReturn(Stream.of(user));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userService.exportUsers(from, to, out);
+
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).lines().count());
+        verify(userRepositoryMock, never()).streamAll();
+    }
+
+    @Test
+    void createUsers_whenSomeItemsInvalid_thenPersistsValidOnesAndReportsErrorsPerItem() {
+        List<UserRequest> requests = List.of(
+                new UserRequest("first@example.com", "John", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("not-an-email", "John", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("minor@example.com", "John", "Doe", LocalDate.now().minusYears(MIN_AGE - 1), null, null),
+                new UserRequest("first@example.com", "John", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("second@example.com", "Jane", "Doe", LocalDate.of(1991, 1, 1), null, null));
+        when(userRepositoryMock.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setId(100L + i);
+            }
+            return users;
+        });
+
+        List<UserBatchResult> actual = userService.createUsers(requests);
+
+        assertEquals(requests.size(), actual.size());
+        assertEquals(UserBatchResult.created(0, 100L), actual.get(0));
+        assertNotNull(actual.get(1).error());
+        assertEquals("User should be at least " + MIN_AGE + " years old", actual.get(2).error());
+        assertNotNull(actual.get(3).error());
+        assertEquals(UserBatchResult.created(4, 101L), actual.get(4));
+        verify(userRepositoryMock, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createUsers_whenEmailAlreadyExists_thenReportsConflictForThatItemOnly() {
+        List<UserRequest> requests = List.of(
+                new UserRequest("taken@example.com", "John", "Doe", LocalDate.of(1990, 1, 1), null, null),
+                new UserRequest("free@example.com", "Jane", "Doe", LocalDate.of(1991, 1, 1), null, null));
+        when(userRepositoryMock.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        when(userRepositoryMock.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.getFirst().setId(7L);
+            return users;
+        });
+
+        List<UserBatchResult> actual = userService.createUsers(requests);
+
+        assertNull(actual.get(0).id());
+        assertEquals("User with email taken@example.com already exists", actual.get(0).error());
+        assertEquals(UserBatchResult.created(1, 7L), actual.get(1));
+    }
+
+    @Test
+    void findById_whenCalledRepeatedly_thenRepositoryIsQueriedOnce() {
+        when(userRepositoryMock.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userService.findById(user.getId());
+        User actual = userService.findById(user.getId());
+
+        assertEquals(user, actual);
+        verify(userRepositoryMock, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void findById_whenUserNotFound_thenMissIsCached() {
+        Long nonExistentId = 999L;
+        when(userRepositoryMock.findById(nonExistentId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.findById(nonExistentId));
+        assertThrows(UserNotFoundException.class, () -> userService.findById(nonExistentId));
+
+        verify(userRepositoryMock, times(1)).findById(nonExistentId);
+    }
+
+    @Test
+    void createUser_whenIdWasCachedAsMissing_thenNewUserIsServedFromCache() {
+        when(userRepositoryMock.findById(user.getId())).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.findById(user.getId()));
+        when(userRepositoryMock.save(any(User.class))).thenReturn(user);
+
+        userService.createUser(userRequest);
+
+        assertEquals(user, userService.findById(user.getId()));
+        verify(userRepositoryMock, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void deleteUserById_whenUserCached_thenEntryIsEvicted() {
+        Long existingUserId = user.getId();
+        when(userRepositoryMock.findById(existingUserId)).thenReturn(Optional.of(user));
+        when(userRepositoryMock.removeById(existingUserId)).thenReturn(1);
+        userService.findById(existingUserId);
+
+        userService.deleteUserById(existingUserId, null);
+        userService.findById(existingUserId);
+
+        verify(userRepositoryMock, times(2)).findById(existingUserId);
+    }
+
+    @Test
+    void findById_whenReplicaStillHasDeletedUser_thenNeitherCachesNorServesIt() {
+        Long deletedUserId = user.getId();
+        // The replica has not replayed the delete yet; the primary has
+        when(userRepositoryMock.findById(deletedUserId)).thenAnswer(invocation ->
+                ReplicaRoutingDataSource.currentRoute() == ReplicaRoutingDataSource.Route.REPLICA
+                        ? Optional.of(user)
+                        : Optional.empty());
+        when(userRepositoryMock.findAllByIdArray(new Long[]{deletedUserId})).thenAnswer(invocation ->
+                ReplicaRoutingDataSource.currentRoute() == ReplicaRoutingDataSource.Route.REPLICA
+                        ? List.of(user)
+                        : List.of());
+        when(userRepositoryMock.removeById(deletedUserId)).thenReturn(1);
+
+        userService.deleteUserById(deletedUserId, null);
+        assertThrows(UserNotFoundException.class, () -> userService.findById(deletedUserId));
+        assertEquals(List.of(deletedUserId), userService.findByIds(List.of(deletedUserId)).missing());
+
+        ReplicaRoutingDataSource.setPrimaryOnly(true);
+        try {
+            assertThrows(UserNotFoundException.class, () -> userService.findById(deletedUserId));
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryOnly(false);
+        }
+    }
+
+    @Test
+    void updateUser_whenExpectedVersionIsStale_thenThrowsVersionMismatch() {
+        user.setVersion(3L);
+        when(userRepositoryMock.findById(user.getId())).thenReturn(Optional.of(user));
+
+        assertThrows(UserVersionMismatchException.class, () -> userService.updateUser(user.getId(), userRequest, 2L));
+        verify(userRepositoryMock, never()).save(any(User.class));
+    }
+
+    @Test
+    void partialUpdateUser_whenExpectedVersionMatches_thenUserIsUpdated() {
+        user.setVersion(3L);
+        UserRequest partialUpdateRequest = new UserRequest();
+        partialUpdateRequest.setPhone("0987654321");
+        when(userRepositoryMock.findById(user.getId())).thenReturn(Optional.of(user));
+
+        User actual = userService.partialUpdateUser(user.getId(), partialUpdateRequest, 3L);
+
+        assertEquals("0987654321", actual.getPhone());
+    }
+
+    @Test
+    void deleteUserById_whenExpectedVersionIsStale_thenThrowsVersionMismatch() {
+        when(userRepositoryMock.removeByIdAndVersion(user.getId(), 2L)).thenReturn(0);
+        when(userRepositoryMock.existsById(user.getId())).thenReturn(true);
+
+        assertThrows(UserVersionMismatchException.class, () -> userService.deleteUserById(user.getId(), 2L));
     }
 
-}
\ No newline at end of file
+    @Test
+    void searchUsers_whenQueryValid_thenSearchesNormalizedPrefixWithCappedLimit() {
+        when(userRepositoryMock.searchByPrefix("jo_h", "jo\\_h%", 50)).thenReturn(userList);
+
+        List<User> actual = userService.searchUsers("  Jo_H ", 1000);
+
+        assertEquals(userList, actual);
+        verify(userRepositoryMock).searchByPrefix("jo_h", "jo\\_h%", 50);
+    }
+
+    @Test
+    void searchUsers_whenQueryTooShort_thenThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> userService.searchUsers(" j ", 10));
+        verifyNoInteractions(userRepositoryMock);
+    }
+
+    @Test
+    void findByIds_whenSomeCachedAndSomeMissing_thenQueriesOnlyUncachedIdsAndKeepsRequestedOrder() {
+        User other = userList.get(1);
+        when(userRepositoryMock.findById(other.getId())).thenReturn(Optional.of(other));
+        userService.findById(other.getId());
+        when(userRepositoryMock.findAllByIdArray(new Long[]{999L, 1L})).thenReturn(List.of(user));
+
+        UserLookup actual = userService.findByIds(List.of(999L, 5L, 1L, 5L));
+
+        assertEquals(List.of(other, user), actual.users());
+        assertEquals(List.of(999L), actual.missing());
+        verify(userRepositoryMock).findAllByIdArray(new Long[]{999L, 1L});
+    }
+
+    @Test
+    void findByIds_whenCalledAgain_thenServesHitsAndMissesFromCache() {
+        when(userRepositoryMock.findAllByIdArray(new Long[]{1L, 999L})).thenReturn(List.of(user));
+
+        userService.findByIds(List.of(1L, 999L));
+        UserLookup actual = userService.findByIds(List.of(1L, 999L));
+
+        assertEquals(List.of(user), actual.users());
+        assertEquals(List.of(999L), actual.missing());
+        verify(userRepositoryMock, times(1)).findAllByIdArray(any());
+    }
+
+    @Test
+    void findByIds_whenTooManyIds_thenThrowsValidationException() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(ValidationException.class, () -> userService.findByIds(ids));
+        verifyNoInteractions(userRepositoryMock);
+    }
+
+    @Test
+    void findById_whenCalledConcurrentlyOnColdCache_thenRepositoryIsQueriedOnce() throws Exception {
+        when(userRepositoryMock.findById(user.getId())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Optional.of(user);
+        });
+
+        List<User> results = callConcurrently(50, () -> userService.findById(user.getId()));
+
+        assertTrue(results.stream().allMatch(user::equals));
+        verify(userRepositoryMock, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void findAll_whenSamePageRequestedConcurrently_thenRepositoryIsQueriedOnce() throws Exception {
+        when(userRepositoryMock.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return userPage;
+        });
+
+        List<List<User>> results = callConcurrently(50, () -> userService.findAll(PageRequest.of(0, 10), null, null));
+
+        assertTrue(results.stream().allMatch(userList::equals));
+        verify(userRepositoryMock, times(1)).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findAll_whenPinnedCallerArrivesDuringReplicaQuery_thenRunsItsOwnQuery() throws Exception {
+        CountDownLatch replicaQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseReplicaQuery = new CountDownLatch(1);
+        Page<User> beforeWrite = new PageImpl<>(List.of(user));
+        when(userRepositoryMock.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            if (ReplicaRoutingDataSource.currentRoute() == ReplicaRoutingDataSource.Route.PRIMARY) {
+                return userPage;
+            }
+            replicaQueryStarted.countDown();
+            releaseReplicaQuery.await();
+            return beforeWrite;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<User>> replicaRead = executor.submit(() -> userService.findAll(PageRequest.of(0, 10), null, null));
+            assertTrue(replicaQueryStarted.await(5, TimeUnit.SECONDS));
+
+            ReplicaRoutingDataSource.setPrimaryOnly(true);
+            try {
+                assertEquals(userList, userService.findAll(PageRequest.of(0, 10), null, null));
+            } finally {
+                ReplicaRoutingDataSource.setPrimaryOnly(false);
+                releaseReplicaQuery.countDown();
+            }
+            assertEquals(List.of(user), replicaRead.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepositoryMock, times(2)).findAll(any(Pageable.class));
+    }
+
+    private static <T> List<T> callConcurrently(int callers, Callable<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
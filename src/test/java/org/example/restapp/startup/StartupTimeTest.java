@@ -0,0 +1,185 @@
+package org.example.restapp.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.model.User;
+import org.example.restapp.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Launches the packaged application in a fresh JVM and measures the time from launch to its first successful
+ * {@code GET /users/{id}}, which is what a newly added instance has to reach before it takes traffic. Only runs
+ * with {@code mvn test -Pstartup}, after the jars have been built with {@code mvn package -DskipTests}.
+ * {@code -Dstartup.mode} picks what is started: {@code exec} (default) runs the executable jar, {@code thin}
+ * the plain jar with its {@code lib/} directory and {@code cds} the same with {@code target/application.jsa};
+ * both need a {@code -Pcds} build. JVM options such as {@code -Dspring.aot.enabled=true} go in
+ * {@code -Dstartup.jvm-args}, Spring profiles in {@code -Dstartup.profiles} and the limit in
+ * {@code -Dstartup.max-time}. The result is written to {@code target/startup-report.json} and the application
+ * log to {@code target/startup-test.log}.
+ */
+@Tag("startup")
+@SpringBootTest
+public class StartupTimeTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path LOG_FILE = TARGET.resolve("startup-test.log");
+    private static final Path REPORT_FILE = TARGET.resolve("startup-report.json");
+    private static final Path CDS_ARCHIVE = TARGET.resolve("application.jsa");
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${startup.mode:exec}")
+    private Mode mode;
+
+    @Value("${startup.jvm-args:}")
+    private String jvmArgs;
+
+    @Value("${startup.profiles:fast-startup}")
+    private String profiles;
+
+    @Value("${startup.max-time:60s}")
+    private Duration maxTime;
+
+    // The packaged application.yaml points at the main database; the child has to read the row created here
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password}")
+    private String datasourcePassword;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void firstGet_whenStartedInNewJvm_thenSucceedsWithinMaxTime() throws Exception {
+        User user = userService.createUser(new UserRequest(UUID.randomUUID() + "@example.com",
+                "John", "Doe", LocalDate.of(1990, 1, 1), null, null));
+        int port = freePort();
+        Files.createDirectories(LOG_FILE.getParent());
+
+        List<String> command = command(port);
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(LOG_FILE.toFile());
+        builder.environment().put("SPRING_DATASOURCE_URL", datasourceUrl);
+        builder.environment().put("SPRING_DATASOURCE_USERNAME", datasourceUsername);
+        builder.environment().put("SPRING_DATASOURCE_PASSWORD", datasourcePassword);
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            Duration elapsed = awaitFirstGet(process, URI.create("http://localhost:" + port + "/users/" + user.getId()),
+                    start);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT_FILE.toFile(),
+                    new StartupReport(mode, profiles, jvmArgs, command, elapsed.toMillis()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        if (mode == Mode.CDS) {
+            assertTrue(Files.exists(CDS_ARCHIVE), CDS_ARCHIVE + " is missing, build it with mvn package -Pcds");
+            command.add("-XX:SharedArchiveFile=" + CDS_ARCHIVE);
+        }
+        command.addAll(List.of(
+                "-jar", jar().toString(),
+                "--server.port=" + port,
+                "--spring.profiles.active=" + profiles));
+        return command;
+    }
+
+    // The thin jar finds its dependencies through the lib/ class path in its manifest
+    private Path jar() throws IOException {
+        boolean executable = mode == Mode.EXEC;
+        try (Stream<Path> files = Files.list(TARGET)) {
+            Optional<Path> jar = files
+                    .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .filter(file -> file.getFileName().toString().endsWith("-exec.jar") == executable)
+                    .findFirst();
+            assertTrue(jar.isPresent(), "No " + (executable ? "executable" : "thin") + " jar in " + TARGET
+                    + ", build it with mvn package -DskipTests" + (executable ? "" : " -Pcds"));
+            if (!executable) {
+                assertTrue(Files.isDirectory(TARGET.resolve("lib")), "No " + TARGET.resolve("lib")
+                        + ", build it with mvn package -DskipTests -Pcds");
+            }
+            return jar.get();
+        }
+    }
+
+    private Duration awaitFirstGet(Process process, URI uri, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        while (true) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertTrue(process.isAlive(), "Application exited during startup, see " + LOG_FILE);
+            assertTrue(elapsed.compareTo(maxTime) <= 0,
+                    "No successful GET within " + maxTime.toMillis() + " ms, see " + LOG_FILE);
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - start);
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    enum Mode {
+        EXEC, THIN, CDS
+    }
+
+    public record StartupReport(Mode mode, String profiles, String jvmArgs, List<String> command,
+                                long firstGetMillis) {
+    }
+}
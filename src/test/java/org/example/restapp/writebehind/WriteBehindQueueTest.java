@@ -0,0 +1,172 @@
+package org.example.restapp.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.restapp.config.CacheConfig;
+import org.example.restapp.dto.UserRequest;
+import org.example.restapp.dto.UserUpdateStatus;
+import org.example.restapp.exception.UserNotFoundException;
+import org.example.restapp.exception.UserVersionMismatchException;
+import org.example.restapp.exception.WriteBehindQueueFullException;
+import org.example.restapp.model.User;
+import org.example.restapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class WriteBehindQueueTest {
+
+    @TempDir
+    private Path directory;
+
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() {
+        userService = mock(UserService.class);
+    }
+
+    @Test
+    void flush_whenSeveralPatchesForSameUser_thenWritesOneMergedUpdate() throws IOException {
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), isNull()))
+                .thenReturn(User.builder().id(1L).version(3L).build());
+        WriteBehindQueue queue = queue(10);
+
+        UserUpdateStatus email = queue.submit(1L, request("new@example.com", null), true, null);
+        UserUpdateStatus phone = queue.submit(1L, request(null, "555"), true, null);
+
+        assertEquals(1, queue.flush());
+        verify(userService, times(1)).partialUpdateUser(1L, request("new@example.com", "555"), null);
+        assertEquals(UserUpdateStatus.applied(email.trackingId(), 1L, 3L), queue.getStatus(email.trackingId()));
+        assertEquals(UserUpdateStatus.applied(phone.trackingId(), 1L, 3L), queue.getStatus(phone.trackingId()));
+    }
+
+    @Test
+    void flush_whenPutFollowsPatch_thenWritesOnlyTheFullUpdate() throws IOException {
+        when(userService.updateUser(eq(1L), any(UserRequest.class), eq(2L)))
+                .thenReturn(User.builder().id(1L).version(3L).build());
+        WriteBehindQueue queue = queue(10);
+
+        queue.submit(1L, request("patched@example.com", "555"), true, 2L);
+        queue.submit(1L, request("put@example.com", null), false, 2L);
+        queue.flush();
+
+        verify(userService).updateUser(1L, request("put@example.com", null), 2L);
+        verify(userService, never()).partialUpdateUser(any(), any(), any());
+    }
+
+    @Test
+    void flush_whenStaleIfMatchFollowsQueuedConditionalPatch_thenFailsOnlyTheStaleUpdate() throws IOException {
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), eq(2L)))
+                .thenReturn(User.builder().id(1L).version(3L).build());
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), eq(1L)))
+                .thenThrow(new UserVersionMismatchException(1L));
+        WriteBehindQueue queue = queue(10);
+
+        UserUpdateStatus current = queue.submit(1L, request("current@example.com", null), true, 2L);
+        UserUpdateStatus stale = queue.submit(1L, request(null, "555"), true, 1L);
+
+        assertEquals(1, queue.flush());
+        verify(userService).partialUpdateUser(1L, request("current@example.com", null), 2L);
+        assertEquals(UserUpdateStatus.State.PENDING, queue.getStatus(stale.trackingId()).state());
+        assertEquals(1, queue.flush());
+        verify(userService, atLeastOnce()).partialUpdateUser(1L, request(null, "555"), 1L);
+        assertEquals(UserUpdateStatus.applied(current.trackingId(), 1L, 3L), queue.getStatus(current.trackingId()));
+        assertEquals(UserUpdateStatus.failed(stale.trackingId(), 1L, "User with id 1 has been modified"),
+                queue.getStatus(stale.trackingId()));
+    }
+
+    @Test
+    void flush_whenStaleIfMatchFollowsQueuedUnconditionalPatch_thenStillAppliesTheUnconditionalOne() throws IOException {
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), isNull()))
+                .thenReturn(User.builder().id(1L).version(3L).build());
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), eq(1L)))
+                .thenThrow(new UserVersionMismatchException(1L));
+        WriteBehindQueue queue = queue(10);
+
+        UserUpdateStatus unconditional = queue.submit(1L, request("new@example.com", null), true, null);
+        UserUpdateStatus stale = queue.submit(1L, request(null, "555"), true, 1L);
+        queue.flush();
+        queue.flush();
+
+        verify(userService).partialUpdateUser(1L, request("new@example.com", null), null);
+        verify(userService, atLeastOnce()).partialUpdateUser(1L, request(null, "555"), 1L);
+        assertEquals(UserUpdateStatus.applied(unconditional.trackingId(), 1L, 3L),
+                queue.getStatus(unconditional.trackingId()));
+        assertEquals(UserUpdateStatus.State.FAILED, queue.getStatus(stale.trackingId()).state());
+    }
+
+    @Test
+    void flush_whenOneUpdateFails_thenAppliesTheOthersAndReportsTheFailure() throws IOException {
+        when(userService.partialUpdateUser(eq(1L), any(UserRequest.class), isNull()))
+                .thenReturn(User.builder().id(1L).version(1L).build());
+        when(userService.partialUpdateUser(eq(2L), any(UserRequest.class), isNull()))
+                .thenThrow(new UserNotFoundException("User with id 2 not found"));
+        WriteBehindQueue queue = queue(10);
+
+        UserUpdateStatus found = queue.submit(1L, request(null, "555"), true, null);
+        UserUpdateStatus missing = queue.submit(2L, request(null, "555"), true, null);
+        queue.flush();
+
+        assertEquals(UserUpdateStatus.State.APPLIED, queue.getStatus(found.trackingId()).state());
+        assertEquals(UserUpdateStatus.failed(missing.trackingId(), 2L, "User with id 2 not found"),
+                queue.getStatus(missing.trackingId()));
+    }
+
+    @Test
+    void submit_whenQueueIsFull_thenAcceptsOnlyUpdatesForQueuedUsers() throws IOException {
+        WriteBehindQueue queue = queue(1);
+
+        queue.submit(1L, request(null, "555"), true, null);
+        queue.submit(1L, request(null, "556"), true, null);
+
+        assertThrows(WriteBehindQueueFullException.class, () -> queue.submit(2L, request(null, "555"), true, null));
+        assertEquals(1, queue.pendingUsers());
+    }
+
+    @Test
+    void constructor_whenJournalHasUnacknowledgedUpdates_thenQueuesThemAgain() throws IOException {
+        when(userService.partialUpdateUser(any(), any(UserRequest.class), isNull()))
+                .thenAnswer(invocation -> User.builder().id(invocation.getArgument(0)).version(1L).build());
+        WriteBehindQueue crashed = queue(10);
+        crashed.submit(1L, request(null, "555"), true, null);
+        crashed.flush();
+        UserUpdateStatus lost = crashed.submit(2L, request(null, "556"), true, null);
+        // No close(): the process dies with user 2 still queued
+
+        WriteBehindQueue restarted = queue(10);
+
+        assertEquals(1, restarted.pendingUsers());
+        assertEquals(UserUpdateStatus.State.PENDING, restarted.getStatus(lost.trackingId()).state());
+        restarted.flush();
+        verify(userService).partialUpdateUser(2L, request(null, "556"), null);
+        verify(userService, times(2)).partialUpdateUser(any(), any(), any());
+    }
+
+    private WriteBehindQueue queue(int capacity) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new WriteBehindQueue(userService, transactionTemplate,
+                new ConcurrentMapCacheManager(CacheConfig.USERS_CACHE),
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(),
+                new WriteBehindQueue.Settings(directory.resolve("updates.journal"), capacity, 100,
+                        Duration.ofMillis(100), Duration.ofMinutes(1), 1024 * 1024));
+    }
+
+    private static UserRequest request(String email, String phone) {
+        return new UserRequest(email, null, null, null, null, phone);
+    }
+}